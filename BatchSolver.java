@@ -0,0 +1,277 @@
+package hw3;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+import api.DescriptionUtil;
+
+/**
+ * Solves every puzzle of a puzzle file without the user interface and writes
+ * one result line per puzzle, as CSV or as JSON lines.
+ * <p>
+ * Each puzzle is solved by its own InformedSolver on a virtual thread, running
+ * A* to find the length of a shortest solution, with its own timeout and
+ * memory budget. A* expands each position once and stops at the first
+ * solution, where the depth first Solver would collect every solution within
+ * the move limit only for one length to be reported. The nodes column counts
+ * expanded positions.
+ * <p>
+ * A semaphore keeps at most the given number of solves running at once, by
+ * default one per core, so the boards and visited tables of waiting puzzles
+ * are never built before a core is free for them. Puzzles can be streamed from
+ * their file, in which case the next one is only read once a slot is free, so
+ * memory use does not grow with the size of the file and the first puzzles are
+ * solved while the rest are still unread. Lines are written as each puzzle
+ * finishes, so they are not in file order; every line starts with the
+ * puzzle's index in the file.
+ * @Author Ethen Santana
+ */
+public class BatchSolver {
+	/**
+	 * Column names of the CSV output.
+	 */
+	public static final String CSV_HEADER = "index,rows,cols,status,length,nodes,visited,millis";
+
+	/**
+	 * Maximum number of moves of each search.
+	 */
+	private int maxMoves;
+
+	/**
+	 * Memory budget of each search's visited table in bytes, or 0 for none.
+	 */
+	private long maxMemoryBytes;
+
+	/**
+	 * Time limit of each search in milliseconds, or 0 for none.
+	 */
+	private long timeoutMillis;
+
+	/**
+	 * Maximum number of searches running at once.
+	 */
+	private int parallelism;
+
+	/**
+	 * True to write JSON lines instead of CSV.
+	 */
+	private boolean json;
+
+	/**
+	 * First error writing a result line, or null.
+	 */
+	private IOException failure;
+
+	/**
+	 * Constructs a batch solver.
+	 *
+	 * @param maxMoves      maximum number of moves of each search
+	 * @param timeoutMillis time limit of each search in milliseconds, or 0
+	 * @param parallelism   maximum number of searches running at once
+	 * @param json          true to write JSON lines instead of CSV
+	 */
+	public BatchSolver(int maxMoves, long timeoutMillis, int parallelism, boolean json) {
+		this(maxMoves, timeoutMillis, 0, parallelism, json);
+	}
+
+	/**
+	 * Constructs a batch solver whose searches each stop when their visited
+	 * table reaches the given memory budget.
+	 *
+	 * @param maxMoves       maximum number of moves of each search
+	 * @param timeoutMillis  time limit of each search in milliseconds, or 0
+	 * @param maxMemoryBytes memory budget of each search in bytes, or 0
+	 * @param parallelism    maximum number of searches running at once
+	 * @param json           true to write JSON lines instead of CSV
+	 */
+	public BatchSolver(int maxMoves, long timeoutMillis, long maxMemoryBytes, int parallelism, boolean json) {
+		this.maxMoves = maxMoves;
+		this.maxMemoryBytes = maxMemoryBytes;
+		this.timeoutMillis = timeoutMillis;
+		this.parallelism = parallelism;
+		this.json = json;
+	}
+
+	/**
+	 * Solves the given puzzles and writes a result line for each to out, with a
+	 * header line first for CSV. Empty descriptions are skipped.
+	 *
+	 * @param descriptions the puzzle descriptions, indexed as in their file
+	 * @param out          receives the result lines
+	 * @return the number of puzzles solved
+	 * @throws IOException          if the output cannot be written
+	 * @throws InterruptedException if the calling thread is interrupted while
+	 *                              waiting for a free slot
+	 */
+	public int solveAll(List<String[][]> descriptions, Writer out) throws IOException, InterruptedException {
+		return solveAll(descriptions.iterator(), out);
+	}
+
+	/**
+	 * Solves the puzzles of the given iterator and writes a result line for
+	 * each to out, with a header line first for CSV. Empty descriptions are
+	 * skipped but still counted for the indexes. The next description is only
+	 * taken from the iterator once a slot is free for it.
+	 *
+	 * @param descriptions the puzzle descriptions, in file order
+	 * @param out          receives the result lines
+	 * @return the number of puzzles solved
+	 * @throws IOException          if the output cannot be written
+	 * @throws InterruptedException if the calling thread is interrupted while
+	 *                              waiting for a free slot
+	 */
+	public int solveAll(Iterator<String[][]> descriptions, Writer out) throws IOException, InterruptedException {
+		failure = null;
+		if (!json) {
+			out.write(CSV_HEADER);
+			out.write(System.lineSeparator());
+		}
+		Semaphore slots = new Semaphore(parallelism);
+		int count = 0;
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int i = 0; descriptions.hasNext(); ++i) {
+				// Wait for a slot before taking the next puzzle, so at most one unsolved puzzle waits in memory
+				slots.acquire();
+				String[][] desc = descriptions.next();
+				if (desc.length == 0) {
+					slots.release();
+					continue;
+				}
+				int index = i;
+				executor.execute(() -> {
+					try {
+						write(out, solveOne(index, desc));
+					}
+					finally {
+						slots.release();
+					}
+				});
+				count += 1;
+			}
+		}
+		out.flush();
+		if (failure != null) {
+			throw failure;
+		}
+		return count;
+	}
+
+	/**
+	 * Solves one puzzle and returns its result line.
+	 *
+	 * @param index index of the puzzle in its file
+	 * @param desc  the puzzle description
+	 * @return the result line, without a line separator
+	 */
+	String solveOne(int index, String[][] desc) {
+		int rows = desc.length;
+		int cols = desc[0].length;
+		try {
+			Board board = new Board(desc);
+			InformedSolver solver = new InformedSolver();
+			solver.setMaxMoves(maxMoves);
+			SolveResult result = solver.solveAStar(board, new SearchLimits(timeoutMillis, 0, maxMemoryBytes));
+			int length = result.getBestSolution() == null ? -1 : result.getBestSolution().size();
+			return format(index, rows, cols, result.getStatus().toString(), length, result.getNodes(),
+					result.getVisited(), result.getElapsedMillis());
+		}
+		catch (RuntimeException e) {
+			// A malformed description fails only its own line
+			return format(index, rows, cols, "ERROR", -1, 0, 0, 0);
+		}
+	}
+
+	/**
+	 * Formats a result line as CSV or JSON. A length of -1 means no solution
+	 * was found and is written as an empty CSV field or a JSON null.
+	 */
+	private String format(int index, int rows, int cols, String status, int length, long nodes, int visited,
+			long millis) {
+		if (json) {
+			return "{\"index\":" + index + ",\"rows\":" + rows + ",\"cols\":" + cols + ",\"status\":\"" + status
+					+ "\",\"length\":" + (length < 0 ? "null" : length) + ",\"nodes\":" + nodes + ",\"visited\":"
+					+ visited + ",\"millis\":" + millis + "}";
+		}
+		return index + "," + rows + "," + cols + "," + status + "," + (length < 0 ? "" : length) + "," + nodes + ","
+				+ visited + "," + millis;
+	}
+
+	/**
+	 * Writes one line to out, keeping lines of different threads apart.
+	 */
+	private void write(Writer out, String line) {
+		synchronized (out) {
+			if (failure != null) {
+				return;
+			}
+			try {
+				out.write(line);
+				out.write(System.lineSeparator());
+			}
+			catch (IOException e) {
+				failure = e;
+			}
+		}
+	}
+
+	/**
+	 * Solves every puzzle of a file. Arguments are the puzzle file followed by
+	 * any of: --max-moves N (default 40), --timeout MILLIS (default 10000),
+	 * --max-memory MB (default half the heap shared between the threads),
+	 * --threads N (default the number of cores), --json, and --out FILE
+	 * (default standard output).
+	 *
+	 * @param args the command line arguments
+	 * @throws Exception if the puzzle file cannot be read or the output written
+	 */
+	public static void main(String[] args) throws Exception {
+		int maxMoves = 40;
+		long timeout = 10000;
+		int threads = Runtime.getRuntime().availableProcessors();
+		long memoryMegabytes = 0;
+		boolean json = false;
+		String outFile = null;
+		for (int i = 1; i < args.length; ++i) {
+			if (args[i].equals("--max-moves")) {
+				maxMoves = Integer.parseInt(args[++i]);
+			}
+			else if (args[i].equals("--timeout")) {
+				timeout = Long.parseLong(args[++i]);
+			}
+			else if (args[i].equals("--max-memory")) {
+				memoryMegabytes = Long.parseLong(args[++i]);
+			}
+			else if (args[i].equals("--threads")) {
+				threads = Integer.parseInt(args[++i]);
+			}
+			else if (args[i].equals("--json")) {
+				json = true;
+			}
+			else if (args[i].equals("--out")) {
+				outFile = args[++i];
+			}
+			else {
+				throw new IllegalArgumentException("unknown option " + args[i]);
+			}
+		}
+
+		// Leave room for the boards, output and estimates that run over between checks
+		long memory = memoryMegabytes > 0 ? memoryMegabytes << 20 : Runtime.getRuntime().maxMemory() / 2 / threads;
+		BatchSolver batch = new BatchSolver(maxMoves, timeout, memory, threads, json);
+		try (Stream<String[][]> descriptions = DescriptionUtil.streamBoardDescriptionsFromFile(args[0]);
+				Writer out = outFile != null ? Files.newBufferedWriter(Paths.get(outFile))
+						: new BufferedWriter(new OutputStreamWriter(System.out))) {
+			batch.solveAll(descriptions.iterator(), out);
+		}
+	}
+}
@@ -0,0 +1,405 @@
+package hw3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import api.Direction;
+import api.Move;
+import api.Orientation;
+
+/**
+ * Finds a shortest solution to a board by breadth first search from both ends:
+ * forwards from the start position and backwards from every goal position, that
+ * is every arrangement of the boulders the start position could slide into in
+ * which one of them covers an exit. Boulders never pass a wall or each other, so
+ * each boulder stays between the walls around it and boulders sharing a lane keep
+ * their order along it.
+ * Every slide can be undone by the opposite slide, so the backward search uses
+ * the same move generation as the forward one, except that moves are never made
+ * out of a solved position. The two searches each cover about half the solution
+ * length, which is far fewer positions than one search covering all of it.
+ * <p>
+ * Each step expands one whole level of whichever side has the smaller frontier.
+ * The first level on which the two sides meet contains a shortest solution.
+ * <p>
+ * Goal positions are enumerated up front. If there are more than the configured
+ * limit, the solver falls back to a plain BreadthFirstSolver, which is reported
+ * by usedFallback().
+ * @Author Ethen Santana
+ */
+public class BidirectionalSolver {
+	/**
+	 * Maximum number of goal positions to enumerate.
+	 */
+	private int maxGoals;
+
+	/**
+	 * Number of positions whose moves were generated in the last search.
+	 */
+	private int expanded;
+
+	/**
+	 * Whether the last search was run by a BreadthFirstSolver instead.
+	 */
+	private boolean fallback;
+
+	/**
+	 * Boulder lanes of the board being solved, used while enumerating goals.
+	 */
+	private ArrayList<Boulder> boulders;
+
+	/**
+	 * Board being solved, used while enumerating goals.
+	 */
+	private Board board;
+
+	/**
+	 * First lane offset each boulder can reach, used while enumerating goals.
+	 */
+	private int[] low;
+
+	/**
+	 * Last lane offset each boulder's first cell can reach, used while
+	 * enumerating goals.
+	 */
+	private int[] high;
+
+	/**
+	 * For each boulder, the boulders before it in the list that share its lane,
+	 * used while enumerating goals.
+	 */
+	private int[][] sameLane;
+
+	/**
+	 * Cells covered while enumerating goals.
+	 */
+	private boolean[][] covered;
+
+	/**
+	 * Lane offsets of the arrangement being enumerated.
+	 */
+	private int[] offsets;
+
+	/**
+	 * Table receiving the enumerated goals.
+	 */
+	private StateTable goals;
+
+	/**
+	 * Codec for the goal keys.
+	 */
+	private StateCodec codec;
+
+	/**
+	 * Remaining number of arrangements the goal enumeration may visit.
+	 */
+	private long budget;
+
+	/**
+	 * Constructs a solver that enumerates at most one million goal positions.
+	 */
+	public BidirectionalSolver() {
+		this(1 << 20);
+	}
+
+	/**
+	 * Constructs a solver that enumerates at most maxGoals goal positions.
+	 *
+	 * @param maxGoals maximum number of goal positions
+	 */
+	public BidirectionalSolver(int maxGoals) {
+		this.maxGoals = maxGoals;
+	}
+
+	/**
+	 * Returns the number of positions whose moves were generated in the last
+	 * search, on both sides.
+	 *
+	 * @return number of expanded positions
+	 */
+	public int getExpandedNodes() {
+		return expanded;
+	}
+
+	/**
+	 * Returns true if the last search had more goal positions than the limit and
+	 * was run as a plain breadth first search from the start position instead.
+	 *
+	 * @return whether the last search fell back to a BreadthFirstSolver
+	 */
+	public boolean usedFallback() {
+		return fallback;
+	}
+
+	/**
+	 * Searches for a shortest sequence of moves that solves the given board,
+	 * starting from its current position. The board is left in the position it
+	 * was given in.
+	 *
+	 * @param board the board to solve
+	 * @return the moves of a shortest solution, empty if the board is already
+	 *         solved, or null if the board cannot be solved
+	 */
+	public ArrayList<Move> solve(Board board) {
+		expanded = 0;
+		fallback = false;
+		if (board.isGameOver()) {
+			return new ArrayList<Move>();
+		}
+		codec = new StateCodec(board);
+		long[] key = codec.newKey();
+		codec.encode(board, key);
+		long[] start = key.clone();
+
+		StateTable backward = enumerateGoals(board);
+		if (backward == null) {
+			BreadthFirstSolver plain = new BreadthFirstSolver();
+			ArrayList<Move> solution = plain.solve(board);
+			expanded = plain.getExpandedNodes();
+			fallback = true;
+			return solution;
+		}
+		ParentLinks backLinks = new ParentLinks();
+		for (int i = 0; i < backward.size(); ++i) {
+			backLinks.record(i, -1, 0);
+		}
+
+		StateTable forward = new StateTable(codec.getWords());
+		ParentLinks forwardLinks = new ParentLinks();
+		forward.insert(start);
+
+		// Each side's insertion order is its breadth first order, with levels [from, to)
+		int forwardFrom = 0;
+		int backwardFrom = 0;
+		int meeting = -1;
+		int best = Integer.MAX_VALUE;
+		ArrayList<Boulder> list = board.getBoulders();
+		int[] position = new int[codec.getBoulderCount()];
+		while (meeting < 0 && forwardFrom < forward.size() && backwardFrom < backward.size()) {
+			boolean forwards = forward.size() - forwardFrom <= backward.size() - backwardFrom;
+			StateTable side = forwards ? forward : backward;
+			StateTable other = forwards ? backward : forward;
+			ParentLinks links = forwards ? forwardLinks : backLinks;
+			int from = forwards ? forwardFrom : backwardFrom;
+			int to = side.size();
+
+			for (int index = from; index < to; ++index) {
+				side.getKey(index, key);
+				codec.decode(key, position);
+				board.setPosition(position);
+
+				// Moves are never made out of a solved position
+				if (forwards && board.isGameOver()) {
+					continue;
+				}
+				expanded += 1;
+				int depth = side.getValue(index) + 1;
+
+				for (int i = 0; i < list.size(); ++i) {
+					Boulder b = list.get(i);
+					for (Direction dir : Direction.values()) {
+						if (!board.trySlide(b, dir)) {
+							continue;
+						}
+
+						// A backward step lands on a position the move is made from, which must be unsolved
+						if (forwards || !board.isGameOver()) {
+							codec.encode(board, key);
+							int child = side.insert(key);
+							if (child >= 0) {
+								side.setValue(child, depth);
+								links.record(child, index, MoveCodec.encode(i, dir));
+								int match = other.find(key);
+								if (match >= 0 && depth + other.getValue(match) < best) {
+									best = depth + other.getValue(match);
+									meeting = forwards ? child : match;
+								}
+							}
+						}
+						board.trySlide(b, Board.opposite(dir));
+					}
+				}
+			}
+			if (forwards) {
+				forwardFrom = to;
+			}
+			else {
+				backwardFrom = to;
+			}
+		}
+
+		int[] path = null;
+		if (meeting >= 0) {
+			forward.getKey(meeting, key);
+			int[] first = forwardLinks.path(meeting, 0);
+			int[] second = backLinks.unwind(backward.find(key));
+			path = Arrays.copyOf(first, first.length + second.length);
+			System.arraycopy(second, 0, path, first.length, second.length);
+		}
+
+		// Put the board back where it started
+		codec.decode(start, position);
+		board.setPosition(position);
+		if (path == null) {
+			return null;
+		}
+		return MoveCodec.toMoves(path, path.length, list, MoveCodec.offsets(list));
+	}
+
+	/**
+	 * Returns a table holding every arrangement of the boulders reachable without
+	 * passing a wall or another boulder in which at least one boulder covers an
+	 * exit, each with value 0, or null if there are more than maxGoals of them.
+	 */
+	private StateTable enumerateGoals(Board board) {
+		this.board = board;
+		boulders = board.getBoulders();
+		covered = new boolean[board.getRowSize()][board.getColSize()];
+		offsets = new int[boulders.size()];
+		low = new int[boulders.size()];
+		high = new int[boulders.size()];
+		sameLane = new int[boulders.size()][];
+		for (int i = 0; i < boulders.size(); ++i) {
+			Boulder b = boulders.get(i);
+
+			// Walk out from the boulder to the walls or board edges on either side
+			int start = start(b);
+			low[i] = start;
+			while (low[i] > 0 && !isWall(b, low[i] - 1)) {
+				low[i] -= 1;
+			}
+			int end = start + b.getLength();
+			while (end < laneLength(b) && !isWall(b, end)) {
+				end += 1;
+			}
+			high[i] = end - b.getLength();
+
+			int count = 0;
+			int[] lane = new int[i];
+			for (int j = 0; j < i; ++j) {
+				if (inSameLane(b, boulders.get(j))) {
+					lane[count++] = j;
+				}
+			}
+			sameLane[i] = Arrays.copyOf(lane, count);
+		}
+		goals = new StateTable(codec.getWords());
+		budget = maxGoals * 16L;
+		boolean complete = place(0, 0, new long[codec.getWords()]);
+		StateTable result = complete ? goals : null;
+		this.board = null;
+		boulders = null;
+		low = null;
+		high = null;
+		sameLane = null;
+		covered = null;
+		goals = null;
+		return result;
+	}
+
+	/**
+	 * Tries every reachable position along its lane for boulder i and the ones
+	 * after it, given that the boulders before it cover the given number of
+	 * exits. Returns false if the enumeration went over its limits.
+	 */
+	private boolean place(int i, int exits, long[] key) {
+		if (--budget < 0) {
+			return false;
+		}
+		if (i == boulders.size()) {
+			if (exits > 0) {
+				codec.encode(offsets, key);
+				goals.insert(key);
+			}
+			return goals.size() <= maxGoals;
+		}
+
+		Boulder b = boulders.get(i);
+		boolean horizontal = b.getOrientation() == Orientation.HORIZONTAL;
+		for (int offset = low[i]; offset <= high[i]; ++offset) {
+			// Boulders sharing the lane must stay in the order they started in
+			boolean fits = true;
+			for (int j : sameLane[i]) {
+				Boulder other = boulders.get(j);
+				if (start(other) < start(b)) {
+					fits = fits && offsets[j] + other.getLength() <= offset;
+				}
+				else {
+					fits = fits && offset + b.getLength() <= offsets[j];
+				}
+			}
+
+			// All cells must be uncovered
+			int onExit = 0;
+			for (int k = 0; k < b.getLength() && fits; ++k) {
+				int row = horizontal ? b.getFirstRow() : offset + k;
+				int col = horizontal ? offset + k : b.getFirstCol();
+				fits = !covered[row][col];
+				if (board.getCellAt(row, col).isExit()) {
+					onExit = 1;
+				}
+			}
+			if (!fits) {
+				continue;
+			}
+			setCovered(b, offset, true);
+			offsets[i] = offset;
+			boolean ok = place(i + 1, exits + onExit, key);
+			setCovered(b, offset, false);
+			if (!ok) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the lane offset of the first cell of boulder b.
+	 */
+	private static int start(Boulder b) {
+		return b.getOrientation() == Orientation.HORIZONTAL ? b.getFirstCol() : b.getFirstRow();
+	}
+
+	/**
+	 * Returns the number of cells in the lane of boulder b.
+	 */
+	private int laneLength(Boulder b) {
+		return b.getOrientation() == Orientation.HORIZONTAL ? board.getColSize() : board.getRowSize();
+	}
+
+	/**
+	 * Returns true if the cell at the given offset along the lane of boulder b
+	 * is a wall.
+	 */
+	private boolean isWall(Boulder b, int offset) {
+		if (b.getOrientation() == Orientation.HORIZONTAL) {
+			return board.getCellAt(b.getFirstRow(), offset).isWall();
+		}
+		return board.getCellAt(offset, b.getFirstCol()).isWall();
+	}
+
+	/**
+	 * Returns true if boulders a and b slide along the same lane.
+	 */
+	private static boolean inSameLane(Boulder a, Boulder b) {
+		if (a.getOrientation() != b.getOrientation()) {
+			return false;
+		}
+		if (a.getOrientation() == Orientation.HORIZONTAL) {
+			return a.getFirstRow() == b.getFirstRow();
+		}
+		return a.getFirstCol() == b.getFirstCol();
+	}
+
+	/**
+	 * Marks the cells of boulder b at the given lane offset as covered or not.
+	 */
+	private void setCovered(Boulder b, int offset, boolean value) {
+		boolean horizontal = b.getOrientation() == Orientation.HORIZONTAL;
+		for (int k = 0; k < b.getLength(); ++k) {
+			int row = horizontal ? b.getFirstRow() : offset + k;
+			int col = horizontal ? offset + k : b.getFirstCol();
+			covered[row][col] = value;
+		}
+	}
+}
@@ -4,9 +4,13 @@ import static api.Direction.*;
 import static api.Orientation.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
 
 import api.Cell;
+import api.CellType;
 import api.Direction;
+import api.MacroMove;
 import api.Move;
 import api.Orientation;
 
@@ -28,13 +32,20 @@ public class Board {
 	private ArrayList<Boulder> boulders;
 
 	/**
-	 * A list of moves that have been made in order to get to the current position
-	 * of boulders on the board.
+	 * Journal of the moves that have been made in order to get to the current
+	 * position of boulders on the board, encoded by MoveCodec. The first
+	 * moveCount entries are the move history; the redoCount entries after them
+	 * are moves that were undone and can be redone, most recently undone first.
 	 */
-	private ArrayList<Move> moveHistory;
+	private int[] moveHistory;
+
+	/**
+	 * Number of undone moves after the move history that can be redone.
+	 */
+	private int redoCount;
 	
 	/*
-	 * Integer representing the amount of moves that have happened
+	 * Integer representing the amount of moves that have happened, and the number of entries of moveHistory in use
 	 */
 	private int moveCount;
 	
@@ -42,8 +53,40 @@ public class Board {
 	 * Current boulder being grabbed, if none = null
 	 */
 	private Boulder grabbedBoulder;
-	
-	private boolean gameOver;
+
+	/**
+	 * Seed for the Zobrist cell keys, fixed so that hashes of the same position
+	 * are equal across boards and runs.
+	 */
+	private static final long ZOBRIST_SEED = 0x5DEECE66DL;
+
+	/**
+	 * Random key of each cell, indexed by (row * number of columns + column).
+	 */
+	private long[] cellKeys;
+
+	/**
+	 * True for each exit cell, indexed by (row * number of columns + column).
+	 */
+	private boolean[] exitMask;
+
+	/**
+	 * Number of exit cells currently covered by a boulder, kept up to date by
+	 * occupy() and vacate() so that isGameOver() is a single field read.
+	 */
+	private int exitsCovered;
+
+	/**
+	 * Layout shared by every Position taken from this board and its copies,
+	 * created by the first call to getPosition().
+	 */
+	private Position.Layout layout;
+
+	/**
+	 * Zobrist hash of the current boulder configuration, the XOR of the keys of
+	 * every cell covered by a boulder (see zobrist()).
+	 */
+	private long hash;
 
 	/**
 	 * Constructs a new board from a given 2D array of cells and list of boulders. The
@@ -61,6 +104,21 @@ public class Board {
 		this.boulders = boulders;
 		grabbedBoulder = null;
 		
+		// Fixed random keys for the Zobrist hash
+		SplittableRandom random = new SplittableRandom(ZOBRIST_SEED);
+		cellKeys = new long[grid.length * grid[0].length];
+		for (int i = 0; i < cellKeys.length; ++i) {
+			cellKeys[i] = random.nextLong();
+		}
+		
+		// Mark the exits so that boulders entering and leaving them can be counted
+		exitMask = new boolean[cellKeys.length];
+		for (int row = 0; row < grid.length; ++row) {
+			for (int col = 0; col < grid[0].length; ++col) {
+				exitMask[row * grid[0].length + col] = grid[row][col].isExit();
+			}
+		}
+		
 		
 		// Iterate through arraylist of boulders to set each boulder in the grid
 		int row;
@@ -72,24 +130,22 @@ public class Board {
 			row = b.getFirstRow();
 			column = b.getFirstCol();
 			
-			// Create boulder on grid using placeBoulder() using given row and column as indexes for grid
+			// Create boulder on grid using occupy() using given row and column as indexes for grid
 			// Because boulders can have a length > 1 cell, we need to iterate through its length and place the same boulder for each cell it occupies
 			if (b.getOrientation() == Orientation.HORIZONTAL) {
 				for (int i=0; i < b.getLength(); i++) {
-					grid[row][column+i].placeBoulder(b);
+					occupy(row, column+i, b);
 				}
 			}
 			else {
 				for (int i=0; i < b.getLength(); i++) {
-					grid[row+i][column].placeBoulder(b);
+					occupy(row+i, column, b);
 				}
 			}
 		}
 		
 		// Initialize move history
-		moveHistory = new ArrayList<Move>();
-		
-		gameOver = false;
+		moveHistory = new int[16];
 	}
 
 	/**
@@ -103,6 +159,72 @@ public class Board {
 		this(GridUtil.createGrid(desc), GridUtil.findBoulders(desc));
 	}
 
+	/**
+	 * Constructs a new board from a given 2D array of one character
+	 * descriptions, as read by BoardDescriptionReader.nextGrid().
+	 * 
+	 * @param desc 2D array of descriptions
+	 */
+	public Board(char[][] desc) {
+		this(GridUtil.createGrid(desc), GridUtil.findBoulders(desc));
+	}
+
+	/**
+	 * Constructs an independent copy of the given board. The copy has its own
+	 * cells and boulders, in the same positions and with the same original
+	 * positions, and a copy of the move history. Moves made on
+	 * the copy do not affect the original, so copies can be searched on separate
+	 * threads.
+	 * 
+	 * @param other the board to copy
+	 */
+	public Board(Board other) {
+		this(copyGrid(other.grid), copyBoulders(other.boulders));
+		// Encoded moves refer to boulders by index, which the copies share
+		moveHistory = other.moveHistory.clone();
+		moveCount = other.moveCount;
+		redoCount = other.redoCount;
+		layout = other.layout;
+	}
+
+	/**
+	 * Returns a copy of the given grid with new, empty cells of the same types.
+	 * 
+	 * @param grid the grid to copy
+	 * @return a new grid
+	 */
+	private static Cell[][] copyGrid(Cell[][] grid) {
+		Cell[][] copy = new Cell[grid.length][grid[0].length];
+		for (int row = 0; row < grid.length; ++row) {
+			for (int col = 0; col < grid[0].length; ++col) {
+				Cell cell = grid[row][col];
+				CellType type = CellType.GROUND;
+				if (cell.isWall()) {
+					type = CellType.WALL;
+				}
+				else if (cell.isExit()) {
+					type = CellType.EXIT;
+				}
+				copy[row][col] = new Cell(row, col, type);
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * Returns a list of copies of the given boulders, in the same order.
+	 * 
+	 * @param boulders the boulders to copy
+	 * @return a new list of boulders
+	 */
+	private static ArrayList<Boulder> copyBoulders(ArrayList<Boulder> boulders) {
+		ArrayList<Boulder> copy = new ArrayList<Boulder>();
+		for (Boulder b : boulders) {
+			copy.add(new Boulder(b));
+		}
+		return copy;
+	}
+
 	/**
 	 * Returns the number of rows of the board.
 	 * 
@@ -139,7 +261,7 @@ public class Board {
 	 * @return the number of moves
 	 */
 	public int getMoveCount() {
-		return moveHistory.size();
+		return moveCount;
 	}
 
 	/**
@@ -151,6 +273,17 @@ public class Board {
 		return boulders;
 	}
 
+	/**
+	 * Returns a 64 bit Zobrist hash of the current position of the boulders. Equal
+	 * positions of boards with the same grid and boulders have equal hashes. The
+	 * hash is updated as boulders move, so reading it takes constant time.
+	 * 
+	 * @return hash of the current position
+	 */
+	public long getHash() {
+		return hash;
+	}
+
 	/**
 	 * Returns true if the player has completed the puzzle by positioning a boulder
 	 * over an exit, false otherwise.
@@ -158,34 +291,8 @@ public class Board {
 	 * @return true if the game is over
 	 */
 	public boolean isGameOver() {
-		
-		//Go through each boulder in the arraylist of boulders, and go through each of their cells to check each on individually to see if one is an exit cell
-		for (Boulder b : boulders) {
-			
-			// For horizontal boulders
-			if (b.getOrientation() == Orientation.HORIZONTAL) {
-				for (int i = 0; i < b.getLength(); ++i) {
-					
-					if (grid[b.getFirstRow()][b.getFirstCol()+i].isExit()) {
-						gameOver = true;
-						return gameOver;
-					}
-				}
-			}
-			
-			// For vertical boulders
-			else {
-				for (int i =0; i < b.getLength(); ++i) {
-					
-					if (grid[b.getFirstRow() + i][b.getFirstCol()].isExit()) {
-						gameOver = true;
-						return gameOver;
-					}
-				}
-			}
-		}
-		
-		return false;
+		// A boulder is over an exit exactly when at least one exit cell is covered
+		return exitsCovered > 0;
 	}
 	
 	/**
@@ -236,6 +343,10 @@ public class Board {
 	 * @return true if the cell is available for a boulder, otherwise false
 	 */
 	public boolean isAvailable(int row, int col) {
+		// Cells outside the grid are never available
+		if (row < 0 || row >= grid.length || col < 0 || col >= grid[0].length) {
+			return false;
+		}
 		// If the cell is type ground or exit, and there is no boulder, return true
 		if ((grid[row][col].isGround() || grid[row][col].isExit()) && (grid[row][col].getBoulder() == null)) {
 			return true;
@@ -260,127 +371,156 @@ public class Board {
 	 * <li>Moves the boulder object by calling its move() method.</li>
 	 * <li>Calls placeBoulder() for the grid cell that the boulder is being moved into.</li>
 	 * <li>Calls removeBoulder() for the grid cell that the boulder is being moved out of.</li>
-	 * <li>Adds the move (as a Move object) to the end of the move history list.</li>
+	 * <li>Appends the move, encoded by MoveCodec, to the end of the move history array.</li>
 	 * <li>Increments the count of total moves made in the game.</li>
 	 * </ul>
 	 * 
 	 * @param dir the direction to move
 	 */
 	public void moveGrabbedBoulder(Direction dir) {
-		// If the game is not over, and there is a grabbed boulder:
-		if (!isGameOver() && grabbedBoulder != null) {
+		// If the game is not over, and there is a grabbed boulder that can move in this direction:
+		if (!isGameOver() && grabbedBoulder != null && canSlide(grabbedBoulder, dir)) {
+			slide(grabbedBoulder, dir);
 			
-			// If the orientation of the boulder is horizontal and the directions are left or right
-			if (grabbedBoulder.getOrientation() == Orientation.HORIZONTAL && (dir == Direction.LEFT || dir == Direction.RIGHT)) {
-				
-				
-				int row = grabbedBoulder.getFirstRow();
-				int col = grabbedBoulder.getFirstCol();
-				
-				// FOR LEFT DIRECTION
-				if (dir == Direction.LEFT) {
-					// If space is not available, end function
-					if (!isAvailable(row, col-1)) {
-						return;
-					}
-					// We can now move the boulder
-					grabbedBoulder.move(dir);
-					
-					// update variables
-					row = grabbedBoulder.getFirstRow();
-					col = grabbedBoulder.getFirstCol();
-					
-					// Place boulder on new cell
-					grid[row][col].placeBoulder(grabbedBoulder);
-					
-					// Remove boulder on old cell
-					grid[row][col + grabbedBoulder.getLength()].removeBoulder();
-				}
-				
-				// FOR RIGHT DIRECTIOn
-				if (dir == Direction.RIGHT) {
-					// If space is not available, end function
-					if (!isAvailable(row, col + grabbedBoulder.getLength())) {
-						return;
-					}
-					// We can now move the boulder
-					grabbedBoulder.move(dir);
-					
-					// update variables
-					row = grabbedBoulder.getFirstRow();
-					col = grabbedBoulder.getFirstCol();
-					
-					// Place boulder on new cell
-					grid[row][col + grabbedBoulder.getLength() - 1].placeBoulder(grabbedBoulder);
-					
-					// Remove boulder on old cell
-					grid[row][col - 1].removeBoulder();
-				}
-				
-				
-				//Add move to move history
-				Move m = new Move(grabbedBoulder, dir);
-				moveHistory.add(m);
-				// Increment move count
-				moveCount += 1;
-				
+			// Add move to move history and increment move count
+			record(MoveCodec.encode(indexOf(grabbedBoulder), dir));
+		}
+	}
+
+	/**
+	 * Makes the given encoded move (see MoveCodec) as if its boulder had been
+	 * grabbed, moved in its direction and released, without allocating anything
+	 * once the move history has grown to the depth being searched. The move is
+	 * only made under the same conditions as moveGrabbedBoulder(), and can be
+	 * undone with undoMove().
+	 * 
+	 * @param move the encoded move
+	 * @return true if the boulder was moved
+	 */
+	public boolean applyMove(int move) {
+		Boulder b = boulders.get(MoveCodec.boulder(move));
+		Direction dir = MoveCodec.direction(move);
+		if (isGameOver() || !canSlide(b, dir)) {
+			return false;
+		}
+		slide(b, dir);
+		record(move);
+		return true;
+	}
+
+	/**
+	 * Adds an encoded move to the end of the move history. A new move replaces
+	 * the undone moves, so they can no longer be redone.
+	 * 
+	 * @param move the encoded move
+	 */
+	private void record(int move) {
+		if (moveCount == moveHistory.length) {
+			moveHistory = Arrays.copyOf(moveHistory, moveCount * 2);
+		}
+		moveHistory[moveCount] = move;
+		moveCount += 1;
+		redoCount = 0;
+	}
+
+	/**
+	 * Returns the index of the given boulder in the boulder list.
+	 * 
+	 * @param b a boulder of this board
+	 * @return its index
+	 */
+	private int indexOf(Boulder b) {
+		int index = 0;
+		while (boulders.get(index) != b) {
+			index += 1;
+		}
+		return index;
+	}
+
+	/**
+	 * Returns true if the given boulder is allowed to slide one cell in the given
+	 * direction, that is the direction matches its orientation and the cell it
+	 * would move into is available.
+	 * 
+	 * @param b   the boulder to check
+	 * @param dir the direction to move
+	 * @return true if the boulder can move
+	 */
+	private boolean canSlide(Boulder b, Direction dir) {
+		int row = b.getFirstRow();
+		int col = b.getFirstCol();
+		
+		// For horizontal boulders, check the cell just past the left or right end
+		if (b.getOrientation() == Orientation.HORIZONTAL) {
+			if (dir == Direction.LEFT) {
+				return isAvailable(row, col - 1);
 			}
-			
-			// If the orientation of the boulder is vertical and the directions are up or down
-			if (grabbedBoulder.getOrientation() == Orientation.VERTICAL && (dir == Direction.UP || dir == Direction.DOWN)) {
-							
-							
-				int row = grabbedBoulder.getFirstRow();
-				int col = grabbedBoulder.getFirstCol();
-								
-				// FOR UP DIRECTION
-				if (dir == Direction.UP) {
-					// If space is not available, end function
-					if (!isAvailable(row-1, col)) {
-						return;
-					}
-					// We can now move the boulder
-					grabbedBoulder.move(dir);
-					
-					// update variables
-					row = grabbedBoulder.getFirstRow();
-					col = grabbedBoulder.getFirstCol();
-					
-					// Place boulder on new cell
-					grid[row][col].placeBoulder(grabbedBoulder);
-					
-					// Remove boulder on old cell
-					grid[row + grabbedBoulder.getLength()][col].removeBoulder();
-				}
-				
-				// FOR RIGHT DIRECTIOn
-				if (dir == Direction.DOWN) {
-					// If space is not available, end function
-					if (!isAvailable(row + grabbedBoulder.getLength(), col)) {
-						return;
-					}
-					// We can now move the boulder
-					grabbedBoulder.move(dir);
-					
-					// update variables
-					row = grabbedBoulder.getFirstRow();
-					col = grabbedBoulder.getFirstCol();
-										
-					// Place boulder on new cell
-					grid[row + grabbedBoulder.getLength() - 1][col].placeBoulder(grabbedBoulder);
-										
-					// Remove boulder on old cell
-					grid[row - 1][col].removeBoulder();
-				}
-							
-							
-				//Add move to move history
-				Move m = new Move(grabbedBoulder, dir);
-				moveHistory.add(m);
-				// Increment move count
-				moveCount += 1;
+			if (dir == Direction.RIGHT) {
+				return isAvailable(row, col + b.getLength());
+			}
+		}
+		
+		// For vertical boulders, check the cell just past the top or bottom end
+		else {
+			if (dir == Direction.UP) {
+				return isAvailable(row - 1, col);
+			}
+			if (dir == Direction.DOWN) {
+				return isAvailable(row + b.getLength(), col);
 			}
 		}
+		return false;
+	}
+
+	/**
+	 * Slides the given boulder one cell in the given direction and updates the
+	 * cells it moves into and out of. The move is assumed to be legal.
+	 * 
+	 * @param b   the boulder to move
+	 * @param dir the direction to move
+	 */
+	private void slide(Boulder b, Direction dir) {
+		int row = b.getFirstRow();
+		int col = b.getFirstCol();
+		int last = b.getLength() - 1;
+		
+		// Remove boulder from the cell it is moving out of, then place it on the cell it is moving into
+		if (dir == Direction.LEFT) {
+			vacate(row, col + last);
+			occupy(row, col - 1, b);
+		}
+		else if (dir == Direction.RIGHT) {
+			vacate(row, col);
+			occupy(row, col + last + 1, b);
+		}
+		else if (dir == Direction.UP) {
+			vacate(row + last, col);
+			occupy(row - 1, col, b);
+		}
+		else {
+			vacate(row, col);
+			occupy(row + last + 1, col, b);
+		}
+		b.move(dir);
+	}
+
+	/**
+	 * Returns the direction that reverses a move in the given direction.
+	 * 
+	 * @param dir the direction
+	 * @return the opposite direction
+	 */
+	static Direction opposite(Direction dir) {
+		if (dir == Direction.LEFT) {
+			return Direction.RIGHT;
+		}
+		if (dir == Direction.RIGHT) {
+			return Direction.LEFT;
+		}
+		if (dir == Direction.UP) {
+			return Direction.DOWN;
+		}
+		return Direction.UP;
 	}
 
 	/**
@@ -393,52 +533,181 @@ public class Board {
 	public void reset() {
 		
 		moveCount = 0;
-		moveHistory = new ArrayList<Move>();
-		
-		gameOver = false;
+		redoCount = 0;
 		
+		// Take every boulder off the grid first, so a boulder returning to its
+		// original position never clears cells another boulder was just placed on
+		for (Boulder b : boulders) {
+			setCells(b, null);
+		}
 		
-		// everything regarding boulders
+		// Reset each boulder and place it on the cells it now occupies
 		for (Boulder b : boulders) {
-			// Reset cells that each boulder is occupying
-			int row = b.getFirstRow();
-			int col = b.getFirstCol();			
-			// For horizontal boulders
+			b.reset();
+			setCells(b, b);
+		}
+	}
+
+	/**
+	 * Moves every boulder directly to the given offset along its lane, without
+	 * recording a move. Offsets are columns for horizontal boulders and rows for
+	 * vertical boulders, in the order of the boulder list (see StateCodec). This
+	 * method is only used by the solvers to jump between positions.
+	 * 
+	 * @param offsets one lane offset per boulder
+	 */
+	void setPosition(int[] offsets) {
+		// Take every boulder off the grid first so they can be placed in any order
+		for (Boulder b : boulders) {
+			setCells(b, null);
+		}
+		for (int i = 0; i < boulders.size(); ++i) {
+			Boulder b = boulders.get(i);
 			if (b.getOrientation() == Orientation.HORIZONTAL) {
-				for (int i = 0; i < b.getLength(); ++i) {
-					grid[row][col+i].placeBoulder(null);
-				}
+				b.setFirstCol(offsets[i]);
 			}
-			
-			// For vertical boulders
 			else {
-				for (int i = 0; i < b.getLength(); ++i) {
-					grid[row+i][col].placeBoulder(null);
-				}
-				
+				b.setFirstRow(offsets[i]);
 			}
-			// Reset boulder
-			b.reset();
-			row = b.getFirstRow();
-			col = b.getFirstCol();
-			
-			// Call placeBoulder on new cells boulder is occupying
-			// For horizontal
+			setCells(b, b);
+		}
+		// Undone moves were made from another position
+		redoCount = 0;
+	}
+
+	/**
+	 * Returns an immutable snapshot of the current position of the boulders.
+	 * Snapshots of a board and of its copies share one layout. Snapshots of
+	 * boards built from the same description can be compared with each other
+	 * and applied to any of those boards.
+	 * 
+	 * @return the current position
+	 */
+	public Position getPosition() {
+		if (layout == null) {
+			layout = new Position.Layout(this);
+		}
+		return new Position(layout, MoveCodec.offsets(boulders));
+	}
+
+	/**
+	 * Moves every boulder to where it is in the given position and clears the
+	 * move history, so the game continues from that position. Reset still goes
+	 * back to the original start of the game.
+	 * 
+	 * @param position a position of a board with the same grid and boulder lanes
+	 * @throws IllegalArgumentException if the position is of another board
+	 */
+	public void setPosition(Position position) {
+		if (layout == null) {
+			layout = new Position.Layout(this);
+		}
+		if (!position.hasLayout(layout)) {
+			throw new IllegalArgumentException("position of a different board");
+		}
+		setPosition(position.offsets);
+		moveCount = 0;
+		grabbedBoulder = null;
+	}
+
+	/**
+	 * Slides the given boulder one cell in the given direction if the cell it
+	 * would move into is available, without recording a move and even if the
+	 * game is over. This method is only used by the solvers to generate
+	 * neighbouring positions, including those of solved boards.
+	 * 
+	 * @param b   the boulder to move
+	 * @param dir the direction to move
+	 * @return true if the boulder was moved
+	 */
+	boolean trySlide(Boulder b, Direction dir) {
+		if (!canSlide(b, dir)) {
+			return false;
+		}
+		slide(b, dir);
+		return true;
+	}
+
+	/**
+	 * Sets every cell covered by the given boulder to hold value.
+	 * 
+	 * @param b     the boulder whose cells are updated
+	 * @param value the boulder to place, or null to clear the cells
+	 */
+	private void setCells(Boulder b, Boulder value) {
+		int row = b.getFirstRow();
+		int col = b.getFirstCol();
+		for (int i = 0; i < b.getLength(); ++i) {
+			int r = row;
+			int c = col;
 			if (b.getOrientation() == Orientation.HORIZONTAL) {
-				for (int i=0; i < b.getLength(); ++i) {
-					grid[row][col+i].placeBoulder(b);
-				}
+				c += i;
 			}
-			// For vertical
 			else {
-				for (int i =0; i < b.getLength(); ++i) {
-					grid[row+i][col].placeBoulder(b);
-				}
+				r += i;
+			}
+			if (value == null) {
+				vacate(r, c);
+			}
+			else {
+				occupy(r, c, value);
 			}
-			
 		}
 	}
 
+	/**
+	 * Places boulder b on the cell at row and col, adds the cell's key to the
+	 * hash and counts the cell if it is an exit.
+	 * 
+	 * @param row row of the cell
+	 * @param col column of the cell
+	 * @param b   the boulder moving onto the cell
+	 */
+	private void occupy(int row, int col, Boulder b) {
+		grid[row][col].placeBoulder(b);
+		hash ^= zobrist(row, col, b);
+		if (exitMask[row * grid[0].length + col]) {
+			exitsCovered += 1;
+		}
+	}
+
+	/**
+	 * Removes the boulder, if any, from the cell at row and col, takes the
+	 * cell's key out of the hash and stops counting the cell if it is an exit.
+	 * 
+	 * @param row row of the cell
+	 * @param col column of the cell
+	 */
+	private void vacate(int row, int col) {
+		Boulder b = grid[row][col].getBoulder();
+		if (b != null) {
+			hash ^= zobrist(row, col, b);
+			grid[row][col].removeBoulder();
+			if (exitMask[row * grid[0].length + col]) {
+				exitsCovered -= 1;
+			}
+		}
+	}
+
+	/**
+	 * Returns the Zobrist key for boulder b covering the cell at row and col. The
+	 * key depends on the cell and on the boulder's length and orientation. That
+	 * is enough to tell boulders apart, because a boulder never leaves its lane
+	 * and boulders in the same lane can never pass each other.
+	 * 
+	 * @param row row of the cell
+	 * @param col column of the cell
+	 * @param b   the boulder covering the cell
+	 * @return the key
+	 */
+	private long zobrist(int row, int col, Boulder b) {
+		long shape = b.getLength() * 2L + (b.getOrientation() == Orientation.HORIZONTAL ? 1 : 0);
+		long z = cellKeys[row * grid[0].length + col] + shape * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
 	/**
 	 * Returns a list of all legal moves that can be made by any boulder on the
 	 * current board.
@@ -492,78 +761,231 @@ public class Board {
 		return allPossibleMoves;
 	}
 
+	/**
+	 * Writes every legal move that can be made by any boulder on the current
+	 * board into the given buffer, encoded by MoveCodec and in the same order as
+	 * getAllPossibleMoves(), and returns how many there are. Each boulder has at
+	 * most two legal moves, so a buffer of twice the number of boulders is always
+	 * big enough. Nothing is allocated, so searches can reuse one buffer per
+	 * depth.
+	 * 
+	 * @param moves receives the encoded moves, starting at index 0
+	 * @return the number of legal moves
+	 */
+	public int getAllPossibleMoves(int[] moves) {
+		int count = 0;
+		for (int i = 0; i < boulders.size(); ++i) {
+			Boulder b = boulders.get(i);
+			int row = b.getFirstRow();
+			int col = b.getFirstCol();
+			
+			// Check the cell just past each end of the boulder along its lane
+			if (b.getOrientation() == Orientation.HORIZONTAL) {
+				if (isAvailable(row, col - 1)) {
+					moves[count++] = MoveCodec.encode(i, Direction.LEFT);
+				}
+				if (isAvailable(row, col + b.getLength())) {
+					moves[count++] = MoveCodec.encode(i, Direction.RIGHT);
+				}
+			}
+			else {
+				if (isAvailable(row - 1, col)) {
+					moves[count++] = MoveCodec.encode(i, Direction.UP);
+				}
+				if (isAvailable(row + b.getLength(), col)) {
+					moves[count++] = MoveCodec.encode(i, Direction.DOWN);
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns a list of every slide any boulder can make on the current board,
+	 * one for each distance the boulder can travel in each direction along its
+	 * lane. A slide stops at the first cell that is not available, and at the
+	 * first exit it reaches since covering an exit ends the game.
+	 * 
+	 * @return a list of legal slides, in boulder order
+	 */
+	public ArrayList<MacroMove> getAllMacroMoves() {
+		ArrayList<MacroMove> allMacroMoves = new ArrayList<MacroMove>();
+		for (Boulder b : boulders) {
+			int row = b.getFirstRow();
+			int col = b.getFirstCol();
+			
+			// Walk along the lane from each end of the boulder until it is blocked
+			if (b.getOrientation() == Orientation.HORIZONTAL) {
+				addSlides(allMacroMoves, b, Direction.LEFT, row, col - 1, 0, -1);
+				addSlides(allMacroMoves, b, Direction.RIGHT, row, col + b.getLength(), 0, 1);
+			}
+			else {
+				addSlides(allMacroMoves, b, Direction.UP, row - 1, col, -1, 0);
+				addSlides(allMacroMoves, b, Direction.DOWN, row + b.getLength(), col, 1, 0);
+			}
+		}
+		return allMacroMoves;
+	}
+
+	/**
+	 * Adds a slide of boulder b for each available cell in a row starting at
+	 * (row, col) and stepping by (rowStep, colStep).
+	 * 
+	 * @param slides  the list to add to
+	 * @param b       the boulder
+	 * @param dir     the direction of the slides
+	 * @param row     row of the first cell the boulder would enter
+	 * @param col     column of the first cell the boulder would enter
+	 * @param rowStep row change per cell
+	 * @param colStep column change per cell
+	 */
+	private void addSlides(ArrayList<MacroMove> slides, Boulder b, Direction dir, int row, int col, int rowStep,
+			int colStep) {
+		int distance = 1;
+		while (isAvailable(row, col)) {
+			slides.add(new MacroMove(b, dir, distance, b.getFirstRow(), b.getFirstCol()));
+			if (grid[row][col].isExit()) {
+				break;
+			}
+			row += rowStep;
+			col += colStep;
+			distance += 1;
+		}
+	}
+
 	/**
 	 * 
 	 * Gets the list of all moves performed to get to the current position on the
-	 * board.
+	 * board. The moves are decoded from the encoded history each time, so the
+	 * list is new and changing it does not change the board.
 	 * 
 	 * @return a list of moves performed to get to the current position
 	 */
 	public ArrayList<Move> getMoveHistory() {
-		return moveHistory;
+		return MoveCodec.toMoves(moveHistory, moveCount, boulders, startOffsets());
 	}
 
 	/**
-	 * EXTRA CREDIT 5 POINTS
-	 * <p>
-	 * This method is only used by the Solver.
-	 * <p>
-	 * Undo the previous move. The method gets the last move on the moveHistory list
+	 * Returns an immutable, compact log of the move history that can be saved
+	 * and replayed on a new board built from the same description (see
+	 * MoveLog).
+	 * 
+	 * @return a log of the moves performed to get to the current position
+	 */
+	public MoveLog getMoveLog() {
+		// The log records the hash of the position before the first move
+		int[] offsets = startOffsets();
+		long start = 0;
+		for (int i = 0; i < boulders.size(); ++i) {
+			Boulder b = boulders.get(i);
+			for (int k = 0; k < b.getLength(); ++k) {
+				if (b.getOrientation() == Orientation.HORIZONTAL) {
+					start ^= zobrist(b.getFirstRow(), offsets[i] + k, b);
+				}
+				else {
+					start ^= zobrist(offsets[i] + k, b.getFirstCol(), b);
+				}
+			}
+		}
+		return new MoveLog(moveHistory, moveCount, boulders.size(), start);
+	}
+
+	/**
+	 * Returns the lane offset of every boulder before the first move of the
+	 * move history, found by stepping each move back from the current position.
+	 * 
+	 * @return one lane offset per boulder
+	 */
+	private int[] startOffsets() {
+		int[] offsets = MoveCodec.offsets(boulders);
+		for (int i = moveCount - 1; i >= 0; --i) {
+			offsets[MoveCodec.boulder(moveHistory[i])] -= MoveCodec.step(moveHistory[i]);
+		}
+		return offsets;
+	}
+
+	/**
+	 * Undo the previous move. The method gets the last move of the move history
 	 * and performs the opposite actions of that move, which are the following:
 	 * <ul>
 	 * <li>if required, sets is game over to false</li>
-	 * <li>grabs the moved boulder and calls moveGrabbedBoulder passing the opposite
-	 * direction</li>
-	 * <li>decreases the total move count by two to undo the effect of calling
-	 * moveGrabbedBoulder twice</li>
-	 * <li>removes the move from the moveHistory list</li>
+	 * <li>slides the moved boulder one cell in the opposite direction, updating the
+	 * cells it moves into and out of</li>
+	 * <li>decreases the total move count by one</li>
+	 * <li>removes the move from the move history</li>
 	 * </ul>
-	 * If the moveHistory list is empty this method does nothing.
+	 * The opposite move is always legal, since the cell being moved back into was
+	 * vacated by the move being undone. If the move history is empty this method
+	 * does nothing.
 	 */
 	public void undoMove() {
-		// TODO
-		/*
-		// Method runs as long as the moveHistory list is not empty
-		if (!moveHistory.isEmpty()) {
-			// Set gameOver to false, if it is already false then it doesnt matter if this is changed
-			gameOver = false;
-			
-			// Get the last move object performed
-			Move m = moveHistory.getLast();
-			
-			// Grab the last boulder moved
-			grabbedBoulder = m.getBoulder();
-			
-			Direction dir = m.getDirection();
-			
-			// Get the opposite direction
-			if (grabbedBoulder.getOrientation() == Orientation.VERTICAL) {
-				if (dir == Direction.DOWN) {
-					dir = Direction.UP;
-				}
-				else {
-					dir = Direction.DOWN;
-				}
-			}
-			else {
-				if (dir == Direction.LEFT) {
-					dir = Direction.RIGHT;
-				}
-				else {
-					dir = Direction.LEFT;
-				}
-			}
-			// Move Boulder
-			grabbedBoulder.move(dir);
-			
-			// Decrease move count by 2
-			moveCount -= 2;
-			
-			// Remove move from moveHistory
-			moveHistory.removeLast();
+		// Method runs as long as the move history is not empty
+		if (moveCount > 0) {
+			// Remove the last move performed and slide its boulder back
+			int move = moveHistory[moveCount - 1];
+			slide(boulders.get(MoveCodec.boulder(move)), opposite(MoveCodec.direction(move)));
 			
+			// Decrease move count, which removes the move from the history and keeps it for redo
+			moveCount -= 1;
+			redoCount += 1;
+		}
+	}
+
+	/**
+	 * Undoes up to the given number of moves, most recent first, as if
+	 * undoMove() were called that many times. Each move is reversed in constant
+	 * time, so a search can back up any number of moves without resetting the
+	 * board and replaying the moves it keeps.
+	 * 
+	 * @param count number of moves to undo
+	 * @return number of moves undone, fewer than count if the history ran out
+	 */
+	public int undoMoves(int count) {
+		int undone = Math.min(count, moveCount);
+		for (int i = 0; i < undone; ++i) {
+			undoMove();
+		}
+		return undone;
+	}
+
+	/**
+	 * Makes the most recently undone move again. The move is always legal,
+	 * since the board is back in the position it was made from. If no move has
+	 * been undone since the last new move, reset or jump to a position, this
+	 * method does nothing.
+	 */
+	public void redoMove() {
+		if (redoCount > 0) {
+			int move = moveHistory[moveCount];
+			slide(boulders.get(MoveCodec.boulder(move)), MoveCodec.direction(move));
+			moveCount += 1;
+			redoCount -= 1;
 		}
-		*/
+	}
+
+	/**
+	 * Redoes up to the given number of undone moves, as if redoMove() were
+	 * called that many times.
+	 * 
+	 * @param count number of moves to redo
+	 * @return number of moves redone, fewer than count if there were fewer
+	 *         undone moves
+	 */
+	public int redoMoves(int count) {
+		int redone = Math.min(count, redoCount);
+		for (int i = 0; i < redone; ++i) {
+			redoMove();
+		}
+		return redone;
+	}
+
+	/**
+	 * Returns the number of undone moves that can be redone.
+	 * 
+	 * @return number of moves redoMove() can make
+	 */
+	public int getRedoCount() {
+		return redoCount;
 	}
 
 	@Override
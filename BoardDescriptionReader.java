@@ -0,0 +1,354 @@
+package api;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads board position descriptions from a file one at a time, giving the same
+ * results as DescriptionUtil.readBoardDescriptionsFromFile() without a Scanner.
+ * <p>
+ * Characters are read in large blocks and split into lines and cells directly,
+ * reusing one line buffer for the whole file. Descriptions can be returned as
+ * char grids, with no object per cell, or as string arrays for the existing
+ * String[][] methods, in which case every one character cell shares a cached
+ * String. As with DescriptionUtil, a description is a run of non-blank lines
+ * ending at a blank line or the end of the file, cells are separated by
+ * whitespace, and every extra blank line gives an empty description.
+ */
+public class BoardDescriptionReader implements Closeable {
+	/**
+	 * Shared one character strings for the ASCII characters.
+	 */
+	private static final String[] CELLS = new String[128];
+
+	static {
+		for (int c = 0; c < CELLS.length; ++c) {
+			CELLS[c] = String.valueOf((char) c);
+		}
+	}
+
+	/**
+	 * Source of the characters.
+	 */
+	private Reader in;
+
+	/**
+	 * Block of characters read from in.
+	 */
+	private char[] block = new char[1 << 16];
+
+	/**
+	 * Index of the next unread character of block.
+	 */
+	private int position;
+
+	/**
+	 * Number of characters in block.
+	 */
+	private int limit;
+
+	/**
+	 * Characters of the current line, without its line separator.
+	 */
+	private char[] line = new char[256];
+
+	/**
+	 * Number of characters of the current line.
+	 */
+	private int length;
+
+	/**
+	 * Start of each cell of the current line.
+	 */
+	private int[] starts = new int[64];
+
+	/**
+	 * End (exclusive) of each cell of the current line.
+	 */
+	private int[] ends = new int[64];
+
+	/**
+	 * Number of cells of the current line.
+	 */
+	private int cells;
+
+	/**
+	 * True if the current line is blank, which ends a description.
+	 */
+	private boolean blank;
+
+	/**
+	 * Number of the current line in the file, starting from 1.
+	 */
+	private int lineNumber;
+
+	/**
+	 * Opens a puzzle file, decoding it with the default charset like Scanner.
+	 *
+	 * @param file the file
+	 * @throws IOException if the file cannot be opened
+	 */
+	public BoardDescriptionReader(Path file) throws IOException {
+		this(new InputStreamReader(Channels.newInputStream(FileChannel.open(file, StandardOpenOption.READ)),
+				Charset.defaultCharset()));
+	}
+
+	/**
+	 * Reads descriptions from the given characters.
+	 *
+	 * @param in the source, closed by close()
+	 */
+	public BoardDescriptionReader(Reader in) {
+		this.in = in;
+	}
+
+	/**
+	 * Reads every description of a file as strings.
+	 *
+	 * @param file the file
+	 * @return a list of board position descriptions
+	 * @throws IOException if the file cannot be read
+	 */
+	public static ArrayList<String[][]> readAll(Path file) throws IOException {
+		ArrayList<String[][]> positions = new ArrayList<String[][]>();
+		try (BoardDescriptionReader reader = new BoardDescriptionReader(file)) {
+			String[][] desc = reader.nextDescription();
+			while (desc != null) {
+				positions.add(desc);
+				desc = reader.nextDescription();
+			}
+		}
+		return positions;
+	}
+
+	/**
+	 * Returns a lazy stream of the descriptions of a file as strings. Each
+	 * description is parsed only when the stream asks for it, so memory use
+	 * does not grow with the size of the file. Closing the stream closes the
+	 * file.
+	 *
+	 * @param file the file
+	 * @return the descriptions in file order, including empty ones
+	 * @throws IOException if the file cannot be opened
+	 */
+	public static Stream<String[][]> stream(Path file) throws IOException {
+		BoardDescriptionReader reader = new BoardDescriptionReader(file);
+		Spliterator<String[][]> split = Spliterators.spliteratorUnknownSize(reader.iterator(),
+				Spliterator.ORDERED | Spliterator.NONNULL);
+		return StreamSupport.stream(split, false).onClose(() -> {
+			try {
+				reader.close();
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+	}
+
+	/**
+	 * Returns an iterator over the remaining descriptions as strings, reading
+	 * each one only when it is asked for. Errors reading the file are thrown
+	 * as UncheckedIOException.
+	 *
+	 * @return the descriptions in file order, including empty ones
+	 */
+	public Iterator<String[][]> iterator() {
+		return new Iterator<String[][]>() {
+			/**
+			 * The next description, or null if it has not been read yet.
+			 */
+			private String[][] next;
+
+			/**
+			 * True once the end of the file has been reached.
+			 */
+			private boolean done;
+
+			@Override
+			public boolean hasNext() {
+				if (next == null && !done) {
+					try {
+						next = nextDescription();
+					}
+					catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+					done = next == null;
+				}
+				return next != null;
+			}
+
+			@Override
+			public String[][] next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				String[][] desc = next;
+				next = null;
+				return desc;
+			}
+		};
+	}
+
+	/**
+	 * Reads the next description as strings, one per cell.
+	 *
+	 * @return the description, empty for an extra blank line, or null at the
+	 *         end of the file
+	 * @throws IOException if the file cannot be read
+	 */
+	public String[][] nextDescription() throws IOException {
+		if (!nextLine()) {
+			return null;
+		}
+		ArrayList<String[]> rows = new ArrayList<String[]>();
+		do {
+			if (blank) {
+				break;
+			}
+			String[] row = new String[cells];
+			for (int i = 0; i < cells; ++i) {
+				char c = line[starts[i]];
+				if (ends[i] - starts[i] == 1 && c < CELLS.length) {
+					row[i] = CELLS[c];
+				}
+				else {
+					row[i] = new String(line, starts[i], ends[i] - starts[i]);
+				}
+			}
+			rows.add(row);
+		} while (nextLine());
+		return rows.toArray(new String[0][0]);
+	}
+
+	/**
+	 * Reads the next description as a grid of characters, one per cell.
+	 *
+	 * @return the description, empty for an extra blank line, or null at the
+	 *         end of the file
+	 * @throws IOException if the file cannot be read or a cell has more than
+	 *                     one character
+	 */
+	public char[][] nextGrid() throws IOException {
+		if (!nextLine()) {
+			return null;
+		}
+		ArrayList<char[]> rows = new ArrayList<char[]>();
+		do {
+			if (blank) {
+				break;
+			}
+			char[] row = new char[cells];
+			for (int i = 0; i < cells; ++i) {
+				if (ends[i] - starts[i] != 1) {
+					throw new IOException("line " + lineNumber + ": cell "
+							+ new String(line, starts[i], ends[i] - starts[i]) + " is not a single character");
+				}
+				row[i] = line[starts[i]];
+			}
+			rows.add(row);
+		} while (nextLine());
+		return rows.toArray(new char[0][0]);
+	}
+
+	/**
+	 * Reads the next line and splits it into cells. A line holding only
+	 * characters up to a space is blank and has no cells, as for String.trim().
+	 *
+	 * @return false at the end of the file
+	 * @throws IOException if the file cannot be read
+	 */
+	private boolean nextLine() throws IOException {
+		if (position == limit && !fill()) {
+			return false;
+		}
+		lineNumber += 1;
+		length = 0;
+		while (true) {
+			if (position == limit && !fill()) {
+				break;
+			}
+			char c = block[position++];
+			if (c == '\n' || c == '\u2028' || c == '\u2029' || c == '\u0085') {
+				break;
+			}
+			if (c == '\r') {
+				// A carriage return followed by a line feed is one separator
+				if ((position < limit || fill()) && block[position] == '\n') {
+					position += 1;
+				}
+				break;
+			}
+			if (length == line.length) {
+				line = Arrays.copyOf(line, length * 2);
+			}
+			line[length++] = c;
+		}
+
+		cells = 0;
+		blank = true;
+		for (int i = 0; i < length && blank; ++i) {
+			blank = line[i] <= ' ';
+		}
+		if (blank) {
+			return true;
+		}
+		int i = 0;
+		while (i < length) {
+			while (i < length && Character.isWhitespace(line[i])) {
+				i += 1;
+			}
+			if (i == length) {
+				break;
+			}
+			if (cells == starts.length) {
+				starts = Arrays.copyOf(starts, cells * 2);
+				ends = Arrays.copyOf(ends, cells * 2);
+			}
+			starts[cells] = i;
+			while (i < length && !Character.isWhitespace(line[i])) {
+				i += 1;
+			}
+			ends[cells] = i;
+			cells += 1;
+		}
+		return true;
+	}
+
+	/**
+	 * Reads the next block of characters.
+	 *
+	 * @return false at the end of the file
+	 * @throws IOException if the file cannot be read
+	 */
+	private boolean fill() throws IOException {
+		int count = in.read(block, 0, block.length);
+		while (count == 0) {
+			count = in.read(block, 0, block.length);
+		}
+		position = 0;
+		limit = Math.max(count, 0);
+		return count > 0;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+}
@@ -76,6 +76,35 @@ public class BoardPanel extends JPanel {
 		repaint();
 	}
 
+	/**
+	 * Takes back the last move.
+	 */
+	public void undo() {
+		board.undoMove();
+		updateScore();
+	}
+
+	/**
+	 * Makes the last move taken back again.
+	 */
+	public void redo() {
+		board.redoMove();
+		updateScore();
+	}
+
+	/**
+	 * Shows the move count and whether the game is over after the board was
+	 * moved back or forth through its history.
+	 */
+	private void updateScore() {
+		scorePanel.reset();
+		scorePanel.updateScore(board.getMoveCount());
+		if (board.isGameOver()) {
+			scorePanel.gameOver();
+		}
+		repaint();
+	}
+
 	/**
 	 * Reset the game with a given board.
 	 * 
@@ -61,6 +61,21 @@ public class Boulder {
 
 	}
 
+	/**
+	 * Constructs a copy of the given boulder, with the same current position,
+	 * original position, length and orientation.
+	 * 
+	 * @param other the boulder to copy
+	 */
+	public Boulder(Boulder other) {
+		firstRow = other.firstRow;
+		firstCol = other.firstCol;
+		origRow = other.origRow;
+		origCol = other.origCol;
+		length = other.length;
+		orientation = other.orientation;
+	}
+
 	/**
 	 * Resets the position of the boulder to the original firstRow and firstCol values
 	 * that were passed to the constructor during initialization of the the boulder.
@@ -0,0 +1,122 @@
+package hw3;
+
+import java.util.ArrayList;
+
+import api.Direction;
+import api.Move;
+
+/**
+ * Finds a single shortest solution to a board by breadth first search. Every
+ * distinct position is expanded at most once, so the running time grows with the
+ * number of reachable positions rather than with the number of move sequences.
+ * <p>
+ * Positions are stored in a StateTable, whose insertion order is also the search
+ * queue. For each position the solver keeps only the index of its parent and the
+ * move that reached it (see ParentLinks).
+ * @Author Ethen Santana
+ */
+public class BreadthFirstSolver {
+	/**
+	 * Number of positions whose moves were generated in the last search.
+	 */
+	private int expanded;
+
+	/**
+	 * Number of distinct positions reached in the last search.
+	 */
+	private int visited;
+
+	/**
+	 * Searches for a shortest sequence of moves that solves the given board,
+	 * starting from its current position. The board is left in the position it
+	 * was given in.
+	 *
+	 * @param board the board to solve
+	 * @return the moves of a shortest solution, empty if the board is already
+	 *         solved, or null if the board cannot be solved
+	 */
+	public ArrayList<Move> solve(Board board) {
+		expanded = 0;
+		visited = 0;
+		if (board.isGameOver()) {
+			return new ArrayList<Move>();
+		}
+
+		StateCodec codec = new StateCodec(board);
+		long[] key = codec.newKey();
+		int[] offsets = new int[codec.getBoulderCount()];
+		StateTable table = new StateTable(codec.getWords());
+		ParentLinks links = new ParentLinks();
+
+		codec.encode(board, key);
+		long[] start = key.clone();
+		table.insert(key);
+
+		ArrayList<Boulder> boulders = board.getBoulders();
+		Direction[] directions = Direction.values();
+		int[] solution = null;
+
+		// The table's insertion order is breadth first order, so it doubles as the queue
+		for (int head = 0; head < table.size() && solution == null; ++head) {
+			table.getKey(head, key);
+			codec.decode(key, offsets);
+			board.setPosition(offsets);
+			expanded += 1;
+
+			for (int i = 0; i < boulders.size() && solution == null; ++i) {
+				Boulder b = boulders.get(i);
+				for (Direction dir : directions) {
+					int count = board.getMoveCount();
+					board.grabBoulderAt(b.getFirstRow(), b.getFirstCol());
+					board.moveGrabbedBoulder(dir);
+					board.releaseBoulder();
+					if (board.getMoveCount() == count) {
+						continue;
+					}
+
+					// Record the parent link of positions seen for the first time
+					codec.encode(board, key);
+					int index = table.insert(key);
+					if (index >= 0) {
+						links.record(index, head, MoveCodec.encode(i, dir));
+						if (board.isGameOver()) {
+							solution = links.path(index, 0);
+						}
+					}
+					board.undoMove();
+					if (solution != null) {
+						break;
+					}
+				}
+			}
+		}
+		visited = table.size();
+
+		// Put the board back where it started
+		codec.decode(start, offsets);
+		board.setPosition(offsets);
+		if (solution == null) {
+			return null;
+		}
+		return MoveCodec.toMoves(solution, solution.length, boulders, MoveCodec.offsets(boulders));
+	}
+
+	/**
+	 * Returns the number of positions whose moves were generated in the last
+	 * search.
+	 *
+	 * @return number of expanded positions
+	 */
+	public int getExpandedNodes() {
+		return expanded;
+	}
+
+	/**
+	 * Returns the number of distinct positions reached in the last search.
+	 *
+	 * @return number of visited positions
+	 */
+	public int getVisitedStates() {
+		return visited;
+	}
+}
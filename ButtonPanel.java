@@ -3,21 +3,33 @@ package ui;
 import java.awt.Dimension;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Random;
 
+import javax.swing.AbstractListModel;
 import javax.swing.JButton;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
+import javax.swing.JList;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.ListSelectionModel;
 import javax.swing.SwingUtilities;
 
 import api.DescriptionUtil;
 import api.Move;
+import api.PuzzleLibrary;
 import hw3.Board;
+import hw3.DistanceDatabase;
 
 /**
  * Panel for launching a file dialog and starting a new instance of the game.
@@ -46,6 +58,16 @@ public class ButtonPanel extends JPanel {
 	 */
 	private JButton hintButton;
 
+	/**
+	 * Button to take back the last move.
+	 */
+	private JButton undoButton;
+
+	/**
+	 * Button to make the last move taken back again.
+	 */
+	private JButton redoButton;
+
 	/**
 	 * Panel for the associated game. This reference is needed in order to resize
 	 * the panel when a new game is selected.
@@ -58,6 +80,12 @@ public class ButtonPanel extends JPanel {
 	 */
 	private ScorePanel scorePanel;
 
+	/**
+	 * Precomputed distances of the current game, read from the sidecar file
+	 * next to its puzzle file (see DistanceDatabase), or null if there is none.
+	 */
+	private transient DistanceDatabase hints;
+
 	/**
 	 * Constructs the file selection button panel.
 	 * 
@@ -70,18 +98,31 @@ public class ButtonPanel extends JPanel {
 		loadButton = new JButton("Load");
 		resetButton = new JButton("Reset");
 		hintButton = new JButton("Hint");
+		undoButton = new JButton("Undo");
+		redoButton = new JButton("Redo");
 		this.add(loadButton);
 		this.add(resetButton);
 		this.add(hintButton);
+		this.add(undoButton);
+		this.add(redoButton);
 		loadButton.addActionListener(new ChooseButtonHandler());
 		resetButton.addActionListener(new ResetButtonHandler());
 		hintButton.addActionListener(new HintButtonHandler());
+		undoButton.addActionListener(new UndoButtonHandler());
+		redoButton.addActionListener(new RedoButtonHandler());
 	}
 
 	private class HintButtonHandler implements ActionListener {
 		@Override
 		public void actionPerformed(ActionEvent event) {
 			Board board = boardPanel.getBoard();
+
+			// Give an optimal move if the game has a distance database that knows this position
+			Move best = hints != null ? hints.getBestMove(board) : null;
+			if (best != null) {
+				JOptionPane.showMessageDialog(null, "Try moving boulder at " + best);
+				return;
+			}
 			ArrayList<Move> moves = board.getAllPossibleMoves();
 			if (moves.size() > 0) {
 				Random rand = new Random();
@@ -93,6 +134,28 @@ public class ButtonPanel extends JPanel {
 		}
 	}
 
+	/**
+	 * Opens the distance database in the given file for hints on the given
+	 * board, closing the previous one. Hints fall back to random moves if the
+	 * file does not exist or does not match the board.
+	 * 
+	 * @param file  the database file
+	 * @param board the new board
+	 */
+	private void openHints(Path file, Board board) {
+		try {
+			if (hints != null) {
+				hints.close();
+			}
+			hints = null;
+			if (Files.exists(file)) {
+				hints = new DistanceDatabase(file, board);
+			}
+		} catch (IOException e) {
+			hints = null;
+		}
+	}
+
 	private class ResetButtonHandler implements ActionListener {
 		@Override
 		public void actionPerformed(ActionEvent event) {
@@ -100,6 +163,175 @@ public class ButtonPanel extends JPanel {
 		}
 	}
 
+	private class UndoButtonHandler implements ActionListener {
+		@Override
+		public void actionPerformed(ActionEvent event) {
+			boardPanel.undo();
+		}
+	}
+
+	private class RedoButtonHandler implements ActionListener {
+		@Override
+		public void actionPerformed(ActionEvent event) {
+			boardPanel.redo();
+		}
+	}
+
+	/**
+	 * Opens the puzzles of the given file. A library is opened as it is. A
+	 * text puzzle file is converted to a library in the cache directory (see
+	 * cachedLibrary()) if that copy is missing or older than the file. If the
+	 * file cannot be converted, for example because it has cells of more than
+	 * one character, it is read whole with DescriptionUtil instead.
+	 * 
+	 * @param file the chosen file
+	 * @return the puzzles of the file
+	 * @throws IOException if the file cannot be read
+	 */
+	private static PuzzleListModel openPuzzles(Path file) throws IOException {
+		if (PuzzleLibrary.isLibrary(file)) {
+			return new PuzzleListModel(new PuzzleLibrary(file));
+		}
+		try {
+			Path library = cachedLibrary(file);
+			if (!Files.exists(library)
+					|| Files.getLastModifiedTime(library).compareTo(Files.getLastModifiedTime(file)) < 0) {
+				Files.createDirectories(library.getParent());
+				PuzzleLibrary.build(file, library);
+			}
+			return new PuzzleListModel(new PuzzleLibrary(library));
+		} catch (NoSuchFileException e) {
+			throw e;
+		} catch (IOException e) {
+			return new PuzzleListModel(DescriptionUtil.readBoardDescriptionsFromFile(file.toString()));
+		}
+	}
+
+	/**
+	 * Returns where the library of a text puzzle file is cached: a directory
+	 * of the temporary directory, under a name made from the file's absolute
+	 * path, so the user's own directories are never written to.
+	 * 
+	 * @param file the text puzzle file
+	 * @return the cached library file
+	 */
+	private static Path cachedLibrary(Path file) {
+		Path absolute = file.toAbsolutePath().normalize();
+		String name = absolute.getFileName() + "-" + Integer.toHexString(absolute.toString().hashCode()) + ".lib";
+		return Paths.get(System.getProperty("java.io.tmpdir"), "puzzle-libraries", name);
+	}
+
+	/**
+	 * Returns the text puzzle file that the distance database sidecars of a
+	 * chosen file are named after: the file itself, or for a library next to
+	 * its puzzle file, that puzzle file.
+	 * 
+	 * @param file the chosen file
+	 * @return the puzzle file
+	 */
+	private static Path puzzleFile(Path file) {
+		String name = file.getFileName().toString();
+		if (name.endsWith(".lib") && name.length() > 4) {
+			return file.resolveSibling(name.substring(0, name.length() - 4));
+		}
+		return file;
+	}
+
+	/**
+	 * List model over the puzzles of a library, or of a list of descriptions
+	 * read whole from a file that could not be converted to a library. Names
+	 * are made from the index only when the list shows them, so a library of
+	 * millions of puzzles opens and scrolls without reading them all.
+	 */
+	private static class PuzzleListModel extends AbstractListModel<String> implements Closeable {
+		/**
+		 * Suppress compiler warning.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The library listed, or null if the descriptions are listed.
+		 */
+		private transient PuzzleLibrary library;
+
+		/**
+		 * The descriptions listed, or null if the library is listed.
+		 */
+		private transient ArrayList<String[][]> descriptions;
+
+		/**
+		 * Constructs a model of the given library.
+		 * 
+		 * @param library the library
+		 */
+		public PuzzleListModel(PuzzleLibrary library) {
+			this.library = library;
+		}
+
+		/**
+		 * Constructs a model of the given descriptions.
+		 * 
+		 * @param descriptions the descriptions
+		 */
+		public PuzzleListModel(ArrayList<String[][]> descriptions) {
+			this.descriptions = descriptions;
+		}
+
+		@Override
+		public int getSize() {
+			return library != null ? library.size() : descriptions.size();
+		}
+
+		@Override
+		public String getElementAt(int index) {
+			if (getRows(index) == 0) {
+				return index + ": (empty)";
+			}
+			return index + ": " + getRows(index) + " x " + getCols(index);
+		}
+
+		/**
+		 * Returns the number of rows of a puzzle, 0 for an empty description.
+		 * 
+		 * @param index the puzzle
+		 * @return number of rows
+		 */
+		public int getRows(int index) {
+			return library != null ? library.getRows(index) : descriptions.get(index).length;
+		}
+
+		/**
+		 * Returns the number of columns of a puzzle, 0 for an empty description.
+		 * 
+		 * @param index the puzzle
+		 * @return number of columns
+		 */
+		public int getCols(int index) {
+			if (library != null) {
+				return library.getCols(index);
+			}
+			String[][] description = descriptions.get(index);
+			return description.length == 0 ? 0 : description[0].length;
+		}
+
+		/**
+		 * Returns the description of a puzzle.
+		 * 
+		 * @param index the puzzle
+		 * @return the description
+		 */
+		public String[][] getDescription(int index) {
+			return library != null ? library.getDescription(index) : descriptions.get(index);
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (library != null) {
+				library.close();
+			}
+		}
+	}
+
 	private class ChooseButtonHandler implements ActionListener {
 		@Override
 		public void actionPerformed(ActionEvent event) {
@@ -107,35 +339,31 @@ public class ButtonPanel extends JPanel {
 			JFileChooser chooser = new JFileChooser(System.getProperty("user.home"));
 			int result = chooser.showOpenDialog(null);
 			String msg = null;
-			ArrayList<String[][]> gameDescriptions = null;
 
 			Board board = null;
 			if (result == JFileChooser.APPROVE_OPTION) {
 				File f = chooser.getSelectedFile();
-				try {
-					// read the file
-					gameDescriptions = DescriptionUtil.readBoardDescriptionsFromFile(f.getAbsolutePath());
-					if (gameDescriptions.size() > 0) {
-						// there was at least one valid descriptor, create a
-						// dialog for selecting which game to play
-						ArrayList<String> gameNames = new ArrayList<String>();
-						int count = 0;
-						for (String[][] g : gameDescriptions) {
-							int height = g.length;
-							int width = g[0].length;
-							String name = count + ": " + height + " x " + width;
-							gameNames.add(name);
-							count++;
-						}
-						Object[] possibilities = gameNames.toArray(new String[0]);
-						String s = (String) JOptionPane.showInputDialog(null, "Choose your game", "Choose game",
-								JOptionPane.PLAIN_MESSAGE, null, possibilities, gameNames.get(0));
-
-						// First part of string should be index of game
-						if ((s != null) && (s.length() > 0)) {
-							int index = Integer.parseInt(s.substring(0, s.indexOf(":")));
-							String[][] desc = gameDescriptions.get(index);
-							board = new Board(desc);
+				try (PuzzleListModel puzzles = openPuzzles(f.toPath())) {
+					if (puzzles.getSize() > 0) {
+						// there was at least one descriptor, create a dialog
+						// that pages through the puzzles for selecting which
+						// game to play
+						JList<String> list = new JList<String>(puzzles);
+						list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+						list.setPrototypeCellValue(puzzles.getSize() + ": 999 x 999");
+						list.setVisibleRowCount(12);
+						list.setSelectedIndex(0);
+						int choice = JOptionPane.showConfirmDialog(null, new JScrollPane(list), "Choose game",
+								JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+
+						int index = list.getSelectedIndex();
+						if (choice == JOptionPane.OK_OPTION && index >= 0) {
+							if (puzzles.getRows(index) > 0) {
+								board = new Board(puzzles.getDescription(index));
+								openHints(DistanceDatabase.sidecar(puzzleFile(f.toPath()), index), board);
+							} else {
+								msg = "Game " + index + " is empty. ";
+							}
 						}
 
 						if (board != null) {
@@ -164,14 +392,12 @@ public class ButtonPanel extends JPanel {
 							frame.pack();
 							frame.setVisible(true);
 							boardPanel.reset(board);
-						} else {
-							msg = "No valid descriptors in file. ";
 						}
 					} else {
 						msg = "List of descriptors is empty. ";
 					}
-				} catch (FileNotFoundException ex) {
-					msg = ex.toString();
+				} catch (NoSuchFileException ex) {
+					msg = new FileNotFoundException(ex.getFile()).toString();
 				} catch (Exception e) {
 					msg = "Unexpected error: " + e.toString();
 				}
@@ -0,0 +1,400 @@
+package hw3;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append only checkpoint file of a depth first search by Solver, from which the
+ * search can be resumed after the process is stopped.
+ * <p>
+ * The file starts with a header identifying the search (key length, move limit
+ * and start position) followed by a sequence of batches. Each batch holds the
+ * visited table entries that were added or lowered and the solutions found
+ * since the previous batch, followed by the search stack at the moment it was
+ * written: the moves of the current path and, at each depth, the index of the
+ * move being searched. A batch ends with a marker, so a batch cut short by a
+ * crash is recognized and ignored. Replaying every complete batch rebuilds the
+ * visited table and the solutions as they were when the last one was written.
+ * <p>
+ * Batches are collected in memory by the search thread and written and forced
+ * to disk by a single background thread, so the search only pauses for as long
+ * as it takes to copy out the changes since the last checkpoint.
+ * @Author Ethen Santana
+ */
+class CheckpointLog {
+	/**
+	 * Identifies a checkpoint file.
+	 */
+	private static final long MAGIC = 0x4250434845434B50L;
+
+	/**
+	 * Marks the end of a complete batch.
+	 */
+	private static final int COMMIT = 0x434F4D54;
+
+	/**
+	 * Stack depth recorded when the search has finished.
+	 */
+	static final int FINISHED = -1;
+
+	/**
+	 * Number of longs in each key.
+	 */
+	private int words;
+
+	/**
+	 * The file, kept open until close().
+	 */
+	private FileChannel channel;
+
+	/**
+	 * Writes batches in the background, one at a time and in order.
+	 */
+	private ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "checkpoint writer");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 * Batch being collected.
+	 */
+	private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+	/**
+	 * Visited entries of the batch being collected.
+	 */
+	private DataOutputStream visits = new DataOutputStream(bytes);
+
+	/**
+	 * Number of visited entries in the batch being collected.
+	 */
+	private int visitCount;
+
+	/**
+	 * Solutions of the batch being collected.
+	 */
+	private ArrayList<int[]> solutions = new ArrayList<int[]>();
+
+	/**
+	 * First error of the background writer, or null.
+	 */
+	private volatile IOException failure;
+
+	/**
+	 * State of a search read back from a checkpoint file.
+	 */
+	static class State {
+		/**
+		 * Encoded moves of each solution, relative to the start position.
+		 */
+		ArrayList<int[]> solutions = new ArrayList<int[]>();
+
+		/**
+		 * Depth of the search stack, or FINISHED.
+		 */
+		int depth = FINISHED;
+
+		/**
+		 * Encoded moves of the current path, depth of them.
+		 */
+		int[] moves = new int[0];
+
+		/**
+		 * Index of the move being searched at each depth of the path, and of the
+		 * next move to search at the deepest one, depth + 1 of them.
+		 */
+		int[] cursors = new int[0];
+
+		/**
+		 * Number of positions expanded when the checkpoint was written.
+		 */
+		long nodes;
+
+		/**
+		 * Length of the file up to the end of the last complete batch.
+		 */
+		long length;
+
+		/**
+		 * True if at least one complete batch was read.
+		 */
+		boolean found;
+	}
+
+	/**
+	 * Creates a new checkpoint file for a search, replacing any existing one.
+	 *
+	 * @param file     the checkpoint file
+	 * @param maxMoves move limit of the search
+	 * @param start    packed start position of the search
+	 * @throws IOException if the file cannot be created
+	 */
+	CheckpointLog(Path file, int maxMoves, long[] start) throws IOException {
+		words = start.length;
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		ByteBuffer header = ByteBuffer.allocate(16 + words * 8);
+		header.putLong(MAGIC).putInt(words).putInt(maxMoves);
+		for (long w : start) {
+			header.putLong(w);
+		}
+		header.flip();
+		while (header.hasRemaining()) {
+			channel.write(header);
+		}
+		channel.force(false);
+	}
+
+	/**
+	 * Reopens a checkpoint file to continue appending after the last complete
+	 * batch, dropping anything after it.
+	 *
+	 * @param file   the checkpoint file
+	 * @param words  number of longs per key
+	 * @param length length of the file up to the end of its last complete batch
+	 * @throws IOException if the file cannot be opened
+	 */
+	CheckpointLog(Path file, int words, long length) throws IOException {
+		this.words = words;
+		channel = FileChannel.open(file, StandardOpenOption.WRITE);
+		channel.truncate(length);
+		channel.position(length);
+	}
+
+	/**
+	 * Reads a checkpoint file written for the given search, recording its
+	 * visited entries in seen and returning the rest of its state as of the
+	 * last complete batch.
+	 *
+	 * @param file     the checkpoint file
+	 * @param maxMoves move limit of the search
+	 * @param start    packed start position of the search
+	 * @param seen     receives the visited entries, with move counts relative
+	 *                 to the start position plus startMoves
+	 * @param startMoves move count of the board at the start position
+	 * @return the state of the search
+	 * @throws IOException if the file cannot be read or belongs to a different
+	 *                     search
+	 */
+	static State read(Path file, int maxMoves, long[] start, VisitedStates seen, int startMoves)
+			throws IOException {
+		State state = new State();
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+				InputStream stream = Channels.newInputStream(channel)) {
+			long size = channel.size();
+			DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+			boolean matches = in.readLong() == MAGIC && in.readInt() == start.length && in.readInt() == maxMoves;
+			for (int i = 0; i < start.length && matches; ++i) {
+				matches = in.readLong() == start[i];
+			}
+			if (!matches) {
+				throw new IOException("checkpoint " + file + " was written for a different search");
+			}
+			long position = 16 + start.length * 8;
+
+			// Each complete batch is applied as soon as its marker has been read
+			long[] key = new long[start.length];
+			try {
+				while (true) {
+					// Counts beyond the end of the file can only come from a batch cut short
+					int visitCount = in.readInt();
+					if (visitCount < 0 || visitCount * (start.length * 8L + 4) > size - position) {
+						break;
+					}
+					long[] keys = new long[visitCount * start.length];
+					int[] depths = new int[visitCount];
+					for (int v = 0; v < visitCount; ++v) {
+						for (int i = 0; i < start.length; ++i) {
+							keys[v * start.length + i] = in.readLong();
+						}
+						depths[v] = in.readInt();
+					}
+					int solutionCount = in.readInt();
+					ArrayList<int[]> found = new ArrayList<int[]>();
+					long solutionBytes = 0;
+					for (int s = 0; s < solutionCount; ++s) {
+						int length = in.readInt();
+						if (length < 0 || length * 4L > size - position) {
+							throw new EOFException();
+						}
+						int[] path = new int[length];
+						for (int i = 0; i < path.length; ++i) {
+							path[i] = in.readInt();
+						}
+						found.add(path);
+						solutionBytes += 4 + path.length * 4L;
+					}
+					int depth = in.readInt();
+					if (depth < FINISHED || depth * 8L > size - position) {
+						break;
+					}
+					int[] moves = new int[Math.max(0, depth)];
+					for (int i = 0; i < moves.length; ++i) {
+						moves[i] = in.readInt();
+					}
+					int[] cursors = new int[depth + 1];
+					for (int i = 0; i < cursors.length; ++i) {
+						cursors[i] = in.readInt();
+					}
+					long nodes = in.readLong();
+					if (in.readInt() != COMMIT) {
+						break;
+					}
+
+					for (int v = 0; v < visitCount; ++v) {
+						System.arraycopy(keys, v * start.length, key, 0, start.length);
+						seen.visit(key, depths[v] + startMoves);
+					}
+					state.solutions.addAll(found);
+					state.depth = depth;
+					state.moves = moves;
+					state.cursors = cursors;
+					state.nodes = nodes;
+					state.found = true;
+					position += 4 + visitCount * (start.length * 8L + 4) + 4 + solutionBytes + 4 + moves.length * 4L
+							+ cursors.length * 4L + 8 + 4;
+					state.length = position;
+				}
+			}
+			catch (EOFException e) {
+				// The last batch was cut short
+			}
+			if (!state.found) {
+				state.length = 16 + start.length * 8;
+			}
+		}
+		return state;
+	}
+
+	/**
+	 * Adds a visited table entry that was added or lowered to the current batch.
+	 *
+	 * @param key   the packed position
+	 * @param depth number of moves from the start position
+	 */
+	void visit(long[] key, int depth) {
+		try {
+			for (int i = 0; i < words; ++i) {
+				visits.writeLong(key[i]);
+			}
+			visits.writeInt(depth);
+			visitCount += 1;
+		}
+		catch (IOException e) {
+			// Writing to memory does not fail
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Adds a solution to the current batch.
+	 *
+	 * @param moves  encoded moves from the start position
+	 * @param length number of moves
+	 */
+	void solution(int[] moves, int length) {
+		solutions.add(Arrays.copyOf(moves, length));
+	}
+
+	/**
+	 * Ends the current batch with the given search stack and hands it to the
+	 * background writer.
+	 *
+	 * @param depth   depth of the stack, or FINISHED
+	 * @param moves   encoded moves of the current path
+	 * @param cursors move index at each depth of the path
+	 * @param nodes   number of positions expanded so far
+	 */
+	void commit(int depth, int[] moves, int[] cursors, long nodes) {
+		// After a write error nothing more is written, the error is reported by close()
+		if (failure != null) {
+			return;
+		}
+		ByteArrayOutputStream tail = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(tail)) {
+			out.writeInt(solutions.size());
+			for (int[] path : solutions) {
+				out.writeInt(path.length);
+				for (int move : path) {
+					out.writeInt(move);
+				}
+			}
+			out.writeInt(depth);
+			for (int i = 0; i < depth; ++i) {
+				out.writeInt(moves[i]);
+			}
+			for (int i = 0; i <= depth; ++i) {
+				out.writeInt(cursors[i]);
+			}
+			out.writeLong(nodes);
+			out.writeInt(COMMIT);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		ByteBuffer batch = ByteBuffer.allocate(4 + bytes.size() + tail.size());
+		batch.putInt(visitCount).put(bytes.toByteArray()).put(tail.toByteArray()).flip();
+		bytes.reset();
+		visitCount = 0;
+		solutions.clear();
+
+		writer.execute(() -> {
+			if (failure != null) {
+				return;
+			}
+			try {
+				while (batch.hasRemaining()) {
+					channel.write(batch);
+				}
+				channel.force(false);
+			}
+			catch (IOException e) {
+				failure = e;
+			}
+		});
+	}
+
+	/**
+	 * Waits for every batch to be written and closes the file.
+	 *
+	 * @throws UncheckedIOException if a batch could not be written
+	 */
+	void close() {
+		writer.shutdown();
+		try {
+			while (!writer.awaitTermination(1, TimeUnit.SECONDS)) {
+				// Keep waiting, the last batches must reach the disk
+			}
+			channel.close();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		catch (IOException e) {
+			if (failure == null) {
+				failure = e;
+			}
+		}
+		if (failure != null) {
+			throw new UncheckedIOException(failure);
+		}
+	}
+}
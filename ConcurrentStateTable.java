@@ -0,0 +1,341 @@
+package hw3;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Growable open addressing table of visited positions that can be shared by
+ * several search threads. Each position gets a slot holding its packed key,
+ * the fewest moves it was reached in and a stable index in insertion order.
+ * <p>
+ * The table is split into stripes by the top bits of the key hash, each with
+ * its own array of slots. A slot is claimed by a compare-and-set of its state
+ * from EMPTY to WRITING, after which the claiming thread copies the key in and
+ * publishes it by setting the state to READY. Other threads probing the same
+ * slot wait only for that short copy. Move counts are lowered with a
+ * compare-and-set loop, so a position is reported as worth searching again
+ * only to the thread that actually improved it.
+ * <p>
+ * Threads hold the read side of their stripe's lock while probing, which any
+ * number of them can do at once. When a stripe is half full the thread that
+ * filled it takes the write side, waits for the probes in progress and copies
+ * the stripe into twice as many slots, so the table grows as the search needs
+ * it and a position is never stored twice.
+ * @Author Ethen Santana
+ */
+public class ConcurrentStateTable implements VisitedStates {
+	/**
+	 * Slot state of a slot that holds no key.
+	 */
+	private static final int EMPTY = 0;
+
+	/**
+	 * Slot state of a slot whose key is being copied in.
+	 */
+	private static final int WRITING = 1;
+
+	/**
+	 * Slot state of a slot whose key can be read.
+	 */
+	private static final int READY = 2;
+
+	/**
+	 * Number of bits of the hash that select a stripe.
+	 */
+	private static final int STRIPE_BITS = 6;
+
+	/**
+	 * Move count of a position that was added by insert() and never visited.
+	 */
+	private static final int UNVISITED = Integer.MAX_VALUE;
+
+	/**
+	 * The slots of one stripe.
+	 */
+	private static final class Segment {
+		/**
+		 * Keys of all slots, words longs per slot.
+		 */
+		final long[] keys;
+
+		/**
+		 * State of each slot, EMPTY, WRITING or READY.
+		 */
+		final AtomicIntegerArray states;
+
+		/**
+		 * Fewest moves each slot's position was reached in.
+		 */
+		final AtomicIntegerArray moves;
+
+		/**
+		 * Index of each slot's position, written before the slot is READY.
+		 */
+		final int[] indexes;
+
+		/**
+		 * Number of slots claimed.
+		 */
+		final AtomicInteger used = new AtomicInteger();
+
+		/**
+		 * Constructs an empty segment of the given number of slots.
+		 *
+		 * @param slots number of slots, a power of two
+		 * @param words number of longs per key
+		 */
+		Segment(int slots, int words) {
+			keys = new long[slots * words];
+			states = new AtomicIntegerArray(slots);
+			moves = new AtomicIntegerArray(slots);
+			indexes = new int[slots];
+		}
+	}
+
+	/**
+	 * One stripe of the table: its slots and the lock that guards growing them.
+	 */
+	private static final class Stripe {
+		/**
+		 * Held for reading while probing and for writing while growing.
+		 */
+		final StampedLock lock = new StampedLock();
+
+		/**
+		 * The current slots, replaced only under the write lock.
+		 */
+		Segment segment;
+	}
+
+	/**
+	 * Number of longs in each key.
+	 */
+	private int words;
+
+	/**
+	 * The stripes, selected by the top bits of the key hash.
+	 */
+	private Stripe[] stripes;
+
+	/**
+	 * Number of positions in the table.
+	 */
+	private LongAdder size = new LongAdder();
+
+	/**
+	 * Index the next new position gets.
+	 */
+	private AtomicInteger nextIndex = new AtomicInteger();
+
+	/**
+	 * Constructs an empty table with room for about capacity positions before
+	 * it first grows.
+	 *
+	 * @param words    number of longs per key
+	 * @param capacity expected number of positions
+	 */
+	public ConcurrentStateTable(int words, int capacity) {
+		this.words = words;
+		int slots = Integer.highestOneBit(Math.max(16, capacity) * 2 - 1) * 2;
+		stripes = new Stripe[1 << STRIPE_BITS];
+		for (int i = 0; i < stripes.length; ++i) {
+			stripes[i] = new Stripe();
+			stripes[i].segment = new Segment(Math.max(16, slots >>> STRIPE_BITS), words);
+		}
+	}
+
+	/**
+	 * Records the move count of a position, keeping the smallest. Safe to call
+	 * from any number of threads.
+	 *
+	 * @param key   the packed position, which is copied
+	 * @param count number of moves made to reach the position
+	 * @return true if the position is new or its move count was lowered
+	 */
+	@Override
+	public boolean visit(long[] key, int count) {
+		long hash = StateTable.hash(key);
+		Stripe stripe = stripes[(int) (hash >>> (64 - STRIPE_BITS))];
+		while (true) {
+			Segment segment;
+			int slot;
+			long stamp = stripe.lock.readLock();
+			try {
+				segment = stripe.segment;
+				slot = locate(segment, key, hash, count);
+				if (slot >= 0) {
+					int best = segment.moves.get(slot);
+					while (count < best) {
+						if (segment.moves.compareAndSet(slot, best, count)) {
+							return true;
+						}
+						best = segment.moves.get(slot);
+					}
+					return false;
+				}
+			}
+			finally {
+				stripe.lock.unlockRead(stamp);
+			}
+
+			// A new position was added, or the stripe was too full to add it
+			if (slot != Integer.MIN_VALUE) {
+				if (segment.used.get() >= segment.states.length() / 2) {
+					grow(stripe, segment);
+				}
+				return true;
+			}
+			grow(stripe, segment);
+		}
+	}
+
+	/**
+	 * Adds the given position if it is not already present, without a move
+	 * count. Safe to call from any number of threads. Like StateTable.insert(),
+	 * the result is the index of the new position, or (-(index) - 1) if the
+	 * position was already present. Indexes start at 0 and are given out in
+	 * the order positions are added, by insert() or visit().
+	 *
+	 * @param key the packed position, which is copied
+	 * @return index of the added position, or (-(index) - 1) of the existing one
+	 */
+	public int insert(long[] key) {
+		long hash = StateTable.hash(key);
+		Stripe stripe = stripes[(int) (hash >>> (64 - STRIPE_BITS))];
+		while (true) {
+			Segment segment;
+			int slot;
+			long stamp = stripe.lock.readLock();
+			try {
+				segment = stripe.segment;
+				slot = locate(segment, key, hash, UNVISITED);
+				if (slot >= 0) {
+					return -segment.indexes[slot] - 1;
+				}
+				if (slot != Integer.MIN_VALUE) {
+					slot = -slot - 1;
+				}
+			}
+			finally {
+				stripe.lock.unlockRead(stamp);
+			}
+
+			if (slot != Integer.MIN_VALUE) {
+				if (segment.used.get() >= segment.states.length() / 2) {
+					grow(stripe, segment);
+				}
+				return segment.indexes[slot];
+			}
+			grow(stripe, segment);
+		}
+	}
+
+	@Override
+	public int size() {
+		return size.intValue();
+	}
+
+	/**
+	 * Removes every position and starts the indexes again from 0. Must not be
+	 * called while other threads are using the table.
+	 */
+	@Override
+	public void clear() {
+		for (Stripe stripe : stripes) {
+			Segment segment = stripe.segment;
+			for (int slot = 0; slot < segment.states.length(); ++slot) {
+				segment.states.set(slot, EMPTY);
+			}
+			segment.used.set(0);
+		}
+		size.reset();
+		nextIndex.set(0);
+	}
+
+	/**
+	 * Finds the slot of the given key in a segment, adding the key with the
+	 * given move count if it is not there. The caller must hold the stripe's
+	 * read lock. Returns the slot of an existing key, (-(slot) - 1) of a new
+	 * one, or Integer.MIN_VALUE if the segment has no free slot left.
+	 */
+	private int locate(Segment segment, long[] key, long hash, int count) {
+		int mask = segment.states.length() - 1;
+		int slot = (int) hash & mask;
+		for (int probes = 0; probes <= mask; ++probes) {
+			int state = segment.states.get(slot);
+
+			// Claim an empty slot and publish the key in it
+			if (state == EMPTY && segment.states.compareAndSet(slot, EMPTY, WRITING)) {
+				System.arraycopy(key, 0, segment.keys, slot * words, words);
+				segment.moves.set(slot, count);
+				segment.indexes[slot] = nextIndex.getAndIncrement();
+				segment.states.set(slot, READY);
+				segment.used.incrementAndGet();
+				size.increment();
+				return -slot - 1;
+			}
+
+			// Wait for another thread to finish writing this slot's key
+			while (state != READY) {
+				Thread.onSpinWait();
+				state = segment.states.get(slot);
+			}
+
+			if (matches(segment, key, slot)) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return Integer.MIN_VALUE;
+	}
+
+	/**
+	 * Replaces a stripe's segment with one of twice as many slots holding the
+	 * same positions, unless another thread already has.
+	 */
+	private void grow(Stripe stripe, Segment full) {
+		long stamp = stripe.lock.writeLock();
+		try {
+			if (stripe.segment != full) {
+				return;
+			}
+			Segment grown = new Segment(full.states.length() * 2, words);
+			int mask = grown.states.length() - 1;
+			long[] key = new long[words];
+			for (int from = 0; from < full.states.length(); ++from) {
+				if (full.states.get(from) != READY) {
+					continue;
+				}
+				System.arraycopy(full.keys, from * words, key, 0, words);
+				int slot = (int) StateTable.hash(key) & mask;
+				while (grown.states.get(slot) != EMPTY) {
+					slot = (slot + 1) & mask;
+				}
+				System.arraycopy(key, 0, grown.keys, slot * words, words);
+				grown.moves.set(slot, full.moves.get(from));
+				grown.indexes[slot] = full.indexes[from];
+				grown.states.set(slot, READY);
+			}
+			grown.used.set(full.used.get());
+			stripe.segment = grown;
+		}
+		finally {
+			stripe.lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Returns true if the slot holds the given key. The slot must be READY.
+	 */
+	private boolean matches(Segment segment, long[] key, int slot) {
+		int base = slot * words;
+		for (int i = 0; i < words; ++i) {
+			if (segment.keys[base + i] != key[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -1,9 +1,13 @@
 package api;
 
-import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Scanner;
+import java.util.stream.Stream;
 
 /**
  * Utilities for reading board position descriptions from a file.
@@ -21,21 +25,46 @@ public class DescriptionUtil {
 	 * given boulder of text actually represents a valid board position for the game.
 	 * The file is assumed to end with a blank line. See games.txt as an example
 	 * file that can be read by the method.
+	 * <p>
+	 * The file is read with a BoardDescriptionReader, which gives the same
+	 * descriptions as reading it line by line with a Scanner but much faster.
 	 * 
 	 * @param absolutePath the path to the file
 	 * @return a list of board position descriptions
 	 * @throws FileNotFoundException file not found
+	 * @throws UncheckedIOException  if the file cannot be read
 	 */
 	public static ArrayList<String[][]> readBoardDescriptionsFromFile(String absolutePath)
 			throws FileNotFoundException {
-		ArrayList<String[][]> positions = new ArrayList<String[][]>();
-		File file = new File(absolutePath);
-		Scanner scnr = new Scanner(file);
-		while (scnr.hasNextLine()) {
-			positions.add(readBoardDescriptionFromScanner(scnr));
+		try {
+			return BoardDescriptionReader.readAll(Paths.get(absolutePath));
+		} catch (NoSuchFileException e) {
+			throw new FileNotFoundException(absolutePath);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Returns a lazy stream of the board position descriptions of the given
+	 * file, the same descriptions readBoardDescriptionsFromFile() returns but
+	 * parsed one at a time as the stream is consumed. The stream should be
+	 * closed when done, for example with try-with-resources, to close the file.
+	 * 
+	 * @param absolutePath the path to the file
+	 * @return a stream of board position descriptions
+	 * @throws FileNotFoundException file not found
+	 * @throws UncheckedIOException  if the file cannot be read
+	 */
+	public static Stream<String[][]> streamBoardDescriptionsFromFile(String absolutePath)
+			throws FileNotFoundException {
+		try {
+			return BoardDescriptionReader.stream(Paths.get(absolutePath));
+		} catch (NoSuchFileException e) {
+			throw new FileNotFoundException(absolutePath);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
 		}
-		scnr.close();
-		return positions;
 	}
 
 	/**
@@ -0,0 +1,501 @@
+package hw3;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import api.Cell;
+import api.DescriptionUtil;
+import api.Direction;
+import api.Move;
+import api.Orientation;
+
+/**
+ * Precomputed number of moves to the nearest solved position for every
+ * position reachable from a board's start, so that an optimal move can be
+ * looked up instead of searched for.
+ * <p>
+ * build() enumerates the reachable positions by breadth first search from the
+ * start, then runs a second breadth first search backwards from every solved
+ * one among them (see Board.isGameOver()). Slides are reversible, so the
+ * positions one move from a position at distance d that are not yet labelled
+ * are at distance d + 1; solved positions are never moved out of. Positions
+ * from which no solved position can be reached are marked unsolvable.
+ * <p>
+ * The result is written as an open addressing hash table of packed positions
+ * (see StateCodec), which the constructor maps into memory so that a lookup reads one
+ * or two slots. The file records a fingerprint of the board's layout and is
+ * only opened for a board with the same walls, exits and boulder lanes. The
+ * table is streamed to a temporary file that replaces the database only once
+ * it is complete, and is mapped in windows of at most 1 GB, so a database can
+ * be larger than one buffer.
+ * @Author Ethen Santana
+ */
+public class DistanceDatabase implements Closeable {
+	/**
+	 * Distance returned for a position from which the board cannot be solved.
+	 */
+	public static final int UNSOLVABLE = -1;
+
+	/**
+	 * Distance returned for a position that is not in the database.
+	 */
+	public static final int UNKNOWN = -2;
+
+	/**
+	 * Identifies a database file.
+	 */
+	private static final long MAGIC = 0x4250444953544442L;
+
+	/**
+	 * Size of the file header in bytes: magic, layout, key words, slot count,
+	 * position count, largest distance.
+	 */
+	private static final int HEADER = 48;
+
+	/**
+	 * Stored distance of a position from which the board cannot be solved.
+	 * Stored distances are otherwise the distance plus one, and zero marks an
+	 * empty slot.
+	 */
+	private static final int DEAD = 0xFFFF;
+
+	/**
+	 * Maximum size of one mapped window in bytes.
+	 */
+	private static final long WINDOW = 1L << 30;
+
+	/**
+	 * Largest number of slots a database can have.
+	 */
+	private static final long MAX_SLOTS = 1L << 30;
+
+	/**
+	 * Encodes the positions of the board the database was opened for.
+	 */
+	private StateCodec codec;
+
+	/**
+	 * Scratch key reused for every lookup.
+	 */
+	private long[] key;
+
+	/**
+	 * Number of longs in each key.
+	 */
+	private int words;
+
+	/**
+	 * Number of slots, a power of two.
+	 */
+	private long slots;
+
+	/**
+	 * Number of positions in the database.
+	 */
+	private long count;
+
+	/**
+	 * Largest distance of a solvable position.
+	 */
+	private int maxDistance;
+
+	/**
+	 * The mapped keys, keysPerWindow slots per window.
+	 */
+	private MappedByteBuffer[] keyWindows;
+
+	/**
+	 * Number of key slots in each window.
+	 */
+	private long keysPerWindow;
+
+	/**
+	 * The mapped distances, WINDOW / 2 slots per window.
+	 */
+	private MappedByteBuffer[] distanceWindows;
+
+	/**
+	 * The file channel, kept open until close().
+	 */
+	private FileChannel channel;
+
+	/**
+	 * Opens the database stored in the given file for the given board.
+	 *
+	 * @param file  the database file
+	 * @param board a board with the layout the database was built for
+	 * @throws IOException if the file cannot be read or was built for a
+	 *                     different layout
+	 */
+	public DistanceDatabase(Path file, Board board) throws IOException {
+		codec = new StateCodec(board);
+		key = codec.newKey();
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			if (channel.size() < HEADER) {
+				throw new IOException(file + " is not a distance database");
+			}
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+			if (header.getLong(0) != MAGIC) {
+				throw new IOException(file + " is not a distance database");
+			}
+			if (header.getLong(8) != layout(board) || header.getLong(16) != codec.getWords()) {
+				throw new IOException("distance database " + file + " was built for a different board");
+			}
+			words = codec.getWords();
+			slots = header.getLong(24);
+			count = header.getLong(32);
+			maxDistance = (int) header.getLong(40);
+			if (slots <= 0 || slots > MAX_SLOTS || channel.size() < HEADER + slots * (words * 8L + 2)) {
+				throw new IOException("distance database " + file + " is damaged");
+			}
+			keysPerWindow = WINDOW / (words * 8L);
+			keyWindows = map(HEADER, slots, keysPerWindow, words * 8);
+			distanceWindows = map(HEADER + slots * words * 8, slots, WINDOW / 2, 2);
+		}
+		catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Maps a section of the file holding the given number of records, each of
+	 * the given size, in windows of perWindow records so that no record is
+	 * split between two windows.
+	 */
+	private MappedByteBuffer[] map(long start, long records, long perWindow, int recordBytes) throws IOException {
+		MappedByteBuffer[] windows = new MappedByteBuffer[(int) ((records + perWindow - 1) / perWindow)];
+		for (int i = 0; i < windows.length; ++i) {
+			long first = i * perWindow;
+			long length = Math.min(perWindow, records - first) * recordBytes;
+			windows[i] = channel.map(FileChannel.MapMode.READ_ONLY, start + first * recordBytes, length);
+		}
+		return windows;
+	}
+
+	/**
+	 * Computes the distance of every position reachable from the board's
+	 * current position and writes them to the given file. The board is left in
+	 * the position it was given in.
+	 *
+	 * @param board the board
+	 * @param file  the file to write, replaced if it exists
+	 * @return the number of positions written
+	 * @throws IOException if the file cannot be written
+	 */
+	public static int build(Board board, Path file) throws IOException {
+		StateCodec codec = new StateCodec(board);
+		long[] key = codec.newKey();
+		int[] offsets = new int[codec.getBoulderCount()];
+		StateTable table = new StateTable(codec.getWords());
+		ArrayList<Boulder> boulders = board.getBoulders();
+		Direction[] directions = Direction.values();
+		codec.encode(board, key);
+		long[] start = key.clone();
+		table.insert(key);
+
+		// Forward: every position reachable from the start, marking the solved ones
+		int goals = 0;
+		int[] queue = new int[1024];
+		for (int head = 0; head < table.size(); ++head) {
+			table.getKey(head, key);
+			codec.decode(key, offsets);
+			board.setPosition(offsets);
+			if (board.isGameOver()) {
+				if (goals == queue.length) {
+					queue = Arrays.copyOf(queue, goals * 2);
+				}
+				queue[goals++] = head;
+				table.setValue(head, 1);
+				continue;
+			}
+			for (Boulder b : boulders) {
+				for (Direction dir : directions) {
+					if (board.trySlide(b, dir)) {
+						codec.encode(board, key);
+						table.insert(key);
+						board.trySlide(b, Board.opposite(dir));
+					}
+				}
+			}
+		}
+
+		// Backward: label positions by distance, starting from all solved ones at once
+		int tail = goals;
+		int maxDistance = 0;
+		for (int head = 0; head < tail; ++head) {
+			int index = queue[head];
+			int distance = table.getValue(index);
+			maxDistance = Math.max(maxDistance, distance - 1);
+			table.getKey(index, key);
+			codec.decode(key, offsets);
+			board.setPosition(offsets);
+			for (Boulder b : boulders) {
+				for (Direction dir : directions) {
+					if (!board.trySlide(b, dir)) {
+						continue;
+					}
+					// Neighbours only reachable through a solved position are not in the table
+					codec.encode(board, key);
+					int next = table.find(key);
+					if (next >= 0 && table.getValue(next) == 0) {
+						table.setValue(next, distance + 1);
+						if (tail == queue.length) {
+							queue = Arrays.copyOf(queue, tail * 2);
+						}
+						queue[tail++] = next;
+					}
+					board.trySlide(b, Board.opposite(dir));
+				}
+			}
+		}
+		if (maxDistance + 1 >= DEAD) {
+			throw new IOException("solution distances too large for a distance database");
+		}
+
+		codec.decode(start, offsets);
+		board.setPosition(offsets);
+		write(file, table, codec.getWords(), layout(board), maxDistance);
+		return table.size();
+	}
+
+	/**
+	 * Returns the number of moves from the board's current position to the
+	 * nearest solved position.
+	 *
+	 * @param board the board, with the layout the database was built for
+	 * @return the distance, 0 if the board is solved, UNSOLVABLE if it cannot
+	 *         be solved or UNKNOWN if the position is not in the database
+	 */
+	public int getDistance(Board board) {
+		codec.encode(board, key);
+		return lookup(key);
+	}
+
+	/**
+	 * Returns a move that starts a shortest solution from the board's current
+	 * position.
+	 *
+	 * @param board the board, with the layout the database was built for
+	 * @return the move, or null if the board is solved, cannot be solved or its
+	 *         position is not in the database
+	 */
+	public Move getBestMove(Board board) {
+		if (board.isGameOver()) {
+			return null;
+		}
+		Move best = null;
+		int bestDistance = Integer.MAX_VALUE;
+		for (Boulder b : board.getBoulders()) {
+			for (Direction dir : Direction.values()) {
+				int row = b.getFirstRow();
+				int col = b.getFirstCol();
+				if (!board.trySlide(b, dir)) {
+					continue;
+				}
+				int distance = getDistance(board);
+				board.trySlide(b, Board.opposite(dir));
+				if (distance >= 0 && distance < bestDistance) {
+					best = new Move(b, dir, row, col);
+					bestDistance = distance;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Returns the number of positions in the database.
+	 *
+	 * @return number of positions
+	 */
+	public long size() {
+		return count;
+	}
+
+	/**
+	 * Returns the largest distance of a solvable position, the length of the
+	 * hardest start the board's positions allow.
+	 *
+	 * @return largest distance
+	 */
+	public int getMaxDistance() {
+		return maxDistance;
+	}
+
+	/**
+	 * Closes the file. The mapped memory is released once the database is no
+	 * longer referenced.
+	 *
+	 * @throws IOException if the file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Returns the file next to a puzzle file that holds the distance database
+	 * of the puzzle at the given index, for example games.txt.3.dist.
+	 *
+	 * @param puzzles the puzzle file
+	 * @param index   index of the puzzle in the file
+	 * @return the database file
+	 */
+	public static Path sidecar(Path puzzles, int index) {
+		return puzzles.resolveSibling(puzzles.getFileName() + "." + index + ".dist");
+	}
+
+	/**
+	 * Builds the distance database of every puzzle in a file, writing each to
+	 * its sidecar file.
+	 *
+	 * @param args the path of the puzzle file
+	 * @throws IOException if a file cannot be read or written
+	 */
+	public static void main(String[] args) throws IOException {
+		Path puzzles = Paths.get(args[0]);
+		ArrayList<String[][]> descriptions = DescriptionUtil.readBoardDescriptionsFromFile(puzzles.toString());
+		for (int i = 0; i < descriptions.size(); ++i) {
+			if (descriptions.get(i).length == 0) {
+				continue;
+			}
+			Path file = sidecar(puzzles, i);
+			int positions = build(new Board(descriptions.get(i)), file);
+			System.out.println(file + ": " + positions + " positions");
+		}
+	}
+
+	/**
+	 * Returns the distance stored for the given key, or UNKNOWN.
+	 */
+	private int lookup(long[] key) {
+		long mask = slots - 1;
+		long slot = StateTable.hash(key) & mask;
+		long distancesPerWindow = WINDOW / 2;
+		for (long probes = 0; probes <= mask; ++probes) {
+			MappedByteBuffer window = distanceWindows[(int) (slot / distancesPerWindow)];
+			int stored = Short.toUnsignedInt(window.getShort((int) (slot % distancesPerWindow) * 2));
+			if (stored == 0) {
+				return UNKNOWN;
+			}
+			if (matches(key, slot)) {
+				return stored == DEAD ? UNSOLVABLE : stored - 1;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return UNKNOWN;
+	}
+
+	/**
+	 * Returns true if the given key slot holds the key.
+	 */
+	private boolean matches(long[] key, long slot) {
+		MappedByteBuffer window = keyWindows[(int) (slot / keysPerWindow)];
+		int offset = (int) (slot % keysPerWindow) * words * 8;
+		for (int i = 0; i < words; ++i) {
+			if (window.getLong(offset + i * 8) != key[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Writes the positions of the table, whose values are distance plus one or
+	 * zero for unsolvable positions, as a hash table file. Only the slot of
+	 * each position is worked out in memory; the keys and distances are then
+	 * streamed out in slot order to a temporary file, which is moved over the
+	 * database file once it is complete, so a failed build never leaves a
+	 * partial database behind.
+	 */
+	private static void write(Path file, StateTable table, int words, long layout, int maxDistance)
+			throws IOException {
+		// Keep the load factor at or below one half
+		long slots = Long.highestOneBit(Math.max(16, table.size()) * 2L - 1) * 2;
+		if (slots > MAX_SLOTS) {
+			throw new IOException("too many positions for a distance database");
+		}
+
+		// Index plus one of the position in each slot, zero for an empty slot
+		int[] placed = new int[(int) slots];
+		long[] key = new long[words];
+		for (int index = 0; index < table.size(); ++index) {
+			table.getKey(index, key);
+			int slot = (int) (StateTable.hash(key) & (slots - 1));
+			while (placed[slot] != 0) {
+				slot = (slot + 1) & (int) (slots - 1);
+			}
+			placed[slot] = index + 1;
+		}
+
+		Path partial = Files.createTempFile(file.toAbsolutePath().getParent(), "distances", ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+				DataOutputStream out = new DataOutputStream(
+						new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+				out.writeLong(MAGIC);
+				out.writeLong(layout);
+				out.writeLong(words);
+				out.writeLong(slots);
+				out.writeLong(table.size());
+				out.writeLong(maxDistance);
+				for (int slot = 0; slot < slots; ++slot) {
+					if (placed[slot] != 0) {
+						table.getKey(placed[slot] - 1, key);
+					}
+					else {
+						Arrays.fill(key, 0);
+					}
+					for (int i = 0; i < words; ++i) {
+						out.writeLong(key[i]);
+					}
+				}
+				for (int slot = 0; slot < slots; ++slot) {
+					int value = placed[slot] == 0 ? 0 : table.getValue(placed[slot] - 1);
+					out.writeShort(placed[slot] != 0 && value == 0 ? DEAD : value);
+				}
+				out.flush();
+				channel.force(false);
+			}
+			Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING);
+		}
+		finally {
+			Files.deleteIfExists(partial);
+		}
+	}
+
+	/**
+	 * Returns a fingerprint of the board's layout: its size, the type of every
+	 * cell and the length, orientation and lane of every boulder, but not where
+	 * the boulders are along their lanes.
+	 */
+	private static long layout(Board board) {
+		long h = board.getRowSize() * 31L + board.getColSize();
+		for (int row = 0; row < board.getRowSize(); ++row) {
+			for (int col = 0; col < board.getColSize(); ++col) {
+				Cell cell = board.getCellAt(row, col);
+				h = h * 31 + (cell.isWall() ? 1 : cell.isExit() ? 2 : 0);
+			}
+		}
+		for (Boulder b : board.getBoulders()) {
+			boolean horizontal = b.getOrientation() == Orientation.HORIZONTAL;
+			h = h * 31 + b.getLength();
+			h = h * 31 + (horizontal ? b.getFirstRow() : -1 - b.getFirstCol());
+		}
+		return StateTable.hash(new long[] { h });
+	}
+}
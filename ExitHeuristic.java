@@ -0,0 +1,123 @@
+package hw3;
+
+import java.util.ArrayList;
+
+import api.Orientation;
+
+/**
+ * Admissible lower bound on the number of moves needed to solve a board.
+ * <p>
+ * To finish the game some boulder has to slide along its lane until it covers an
+ * exit cell in that lane. That takes at least as many moves as the distance to
+ * the nearest covering position, and every other boulder sitting in the cells
+ * the boulder has to pass through must move at least once to clear the way. The
+ * estimate is the smallest such count over all boulders and exits. A single move
+ * changes it by at most one, so the bound is also consistent.
+ * @Author Ethen Santana
+ */
+public class ExitHeuristic {
+	/**
+	 * Estimate returned for positions from which no boulder can reach an exit.
+	 */
+	public static final int UNREACHABLE = Integer.MAX_VALUE / 2;
+
+	/**
+	 * Lane offsets of the exit cells in each boulder's lane.
+	 */
+	private int[][] exits;
+
+	/**
+	 * Constructs the heuristic for the given board. Only the cell types and the
+	 * lanes of the boulders are used, so it stays valid as boulders move.
+	 *
+	 * @param board the board to estimate
+	 */
+	public ExitHeuristic(Board board) {
+		ArrayList<Boulder> boulders = board.getBoulders();
+		exits = new int[boulders.size()][];
+		for (int i = 0; i < boulders.size(); ++i) {
+			Boulder b = boulders.get(i);
+			boolean horizontal = b.getOrientation() == Orientation.HORIZONTAL;
+			int laneLength = horizontal ? board.getColSize() : board.getRowSize();
+
+			// Collect the exit cells along the lane
+			ArrayList<Integer> found = new ArrayList<Integer>();
+			for (int k = 0; k < laneLength; ++k) {
+				int row = horizontal ? b.getFirstRow() : k;
+				int col = horizontal ? k : b.getFirstCol();
+				if (board.getCellAt(row, col).isExit()) {
+					found.add(k);
+				}
+			}
+			exits[i] = new int[found.size()];
+			for (int k = 0; k < found.size(); ++k) {
+				exits[i][k] = found.get(k);
+			}
+		}
+	}
+
+	/**
+	 * Returns a lower bound on the number of moves needed to solve the board
+	 * from its current position, 0 if the game is over, or UNREACHABLE if no
+	 * boulder can ever reach an exit.
+	 *
+	 * @param board the board to estimate, with the same boulders and grid as the
+	 *              one this heuristic was built from
+	 * @return lower bound on the remaining moves
+	 */
+	public int estimate(Board board) {
+		ArrayList<Boulder> boulders = board.getBoulders();
+		int best = UNREACHABLE;
+		for (int i = 0; i < exits.length && best > 0; ++i) {
+			Boulder b = boulders.get(i);
+			for (int exit : exits[i]) {
+				best = Math.min(best, estimate(board, b, exit));
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Returns the moves needed for boulder b to cover the exit at the given lane
+	 * offset: its distance to the nearest covering position plus the number of
+	 * other boulders in the way, or UNREACHABLE if a wall is in the way.
+	 */
+	private int estimate(Board board, Boulder b, int exit) {
+		boolean horizontal = b.getOrientation() == Orientation.HORIZONTAL;
+		int offset = horizontal ? b.getFirstCol() : b.getFirstRow();
+		int length = b.getLength();
+
+		// Cells the boulder has to sweep through to reach the nearest covering position
+		int from;
+		int to;
+		if (offset > exit) {
+			from = exit;
+			to = offset - 1;
+		}
+		else if (offset + length - 1 < exit) {
+			from = offset + length;
+			to = exit;
+		}
+		else {
+			return 0;
+		}
+
+		int blockers = 0;
+		Boulder previous = null;
+		for (int k = from; k <= to; ++k) {
+			int row = horizontal ? b.getFirstRow() : k;
+			int col = horizontal ? k : b.getFirstCol();
+			if (board.getCellAt(row, col).isWall()) {
+				return UNREACHABLE;
+			}
+
+			// A boulder lying along the lane covers consecutive cells, count it once
+			Boulder occupant = board.getCellAt(row, col).getBoulder();
+			if (occupant != null && occupant != previous) {
+				blockers += 1;
+			}
+			previous = occupant;
+		}
+		return (to - from + 1) + blockers;
+	}
+}
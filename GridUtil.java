@@ -66,6 +66,33 @@ public class GridUtil {
 		return grid;
 	}
 
+	/**
+	 * Constructs a 2D grid of Cell objects given a 2D array of one character
+	 * cell descriptions, as read by BoardDescriptionReader.nextGrid(). The
+	 * characters have the same meanings as the strings of
+	 * createGrid(String[][]).
+	 * 
+	 * @param desc a 2D array of characters describing the grid
+	 * @return a 2D array of cells the represent the grid without any boulders present
+	 */
+	public static Cell[][] createGrid(char[][] desc) {
+		Cell[][] grid = new Cell[desc.length][desc[0].length];
+		for (int i = 0; i < desc.length; i++) {
+			for (int j = 0; j < desc[0].length; j++) {
+				// Walls and exits are their own types, everything else including boulder parts is ground
+				CellType type = CellType.GROUND;
+				if (desc[i][j] == '*') {
+					type = CellType.WALL;
+				}
+				else if (desc[i][j] == 'e') {
+					type = CellType.EXIT;
+				}
+				grid[i][j] = new Cell(i, j, type);
+			}
+		}
+		return grid;
+	}
+
 	/**
 	 * Returns a list of boulders that are constructed from a given 2D array of cell
 	 * descriptions. String descriptions are a single character and have the
@@ -108,6 +135,40 @@ public class GridUtil {
 		return blist;
 	}
 	
+	/**
+	 * Returns a list of boulders that are constructed from a given 2D array of
+	 * one character cell descriptions, as read by
+	 * BoardDescriptionReader.nextGrid(). The characters have the same meanings
+	 * as the strings of findBoulders(String[][]), and the boulders are in the
+	 * same order.
+	 * 
+	 * @param desc a 2D array of characters describing the grid
+	 * @return a list of boulders found in the given grid description
+	 */
+	public static ArrayList<Boulder> findBoulders(char[][] desc) {
+		ArrayList<Boulder> blist = new ArrayList<Boulder>();
+		for (int i = 0; i < desc.length; i++) {
+			for (int j = 0; j < desc[0].length; j++) {
+				// Walk from the start of each boulder to its end to find its length
+				if (desc[i][j] == '[') {
+					int length = 1;
+					while (desc[i][j + length - 1] != ']') {
+						length += 1;
+					}
+					blist.add(new Boulder(i, j, length, Orientation.HORIZONTAL));
+				}
+				else if (desc[i][j] == '^') {
+					int length = 1;
+					while (desc[i + length - 1][j] != 'v') {
+						length += 1;
+					}
+					blist.add(new Boulder(i, j, length, Orientation.VERTICAL));
+				}
+			}
+		}
+		return blist;
+	}
+
 	/**
 	 * Method to construct a horizontal boulder object when detected in a grid
 	 * 
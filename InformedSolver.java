@@ -0,0 +1,347 @@
+package hw3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import api.Direction;
+import api.Move;
+
+/**
+ * Finds a shortest solution to a board using the ExitHeuristic lower bound to
+ * guide the search.
+ * <p>
+ * solveAStar() runs A* over positions stored in a StateTable. Since every move
+ * costs one and the estimates are small integers, the open list is a bucket
+ * queue indexed by estimated total length, holding packed (moves, state index)
+ * longs, and positions are never re-expanded. It can be given SearchLimits,
+ * so that a search of a board with too many positions stops cleanly.
+ * <p>
+ * solveIdaStar() runs iterative deepening A*, a depth first search bounded by
+ * the estimated total length. Each iteration records the fewest moves it has
+ * reached every position in, and does not search a position again unless it
+ * gets there in fewer moves, so an iteration expands each position only a
+ * few times and one that cuts off nothing shows the board cannot be solved.
+ * @Author Ethen Santana
+ */
+public class InformedSolver {
+	/**
+	 * Number of expanded positions between checks of the clock and memory.
+	 */
+	private static final int CHECK_INTERVAL = 1024;
+
+	/**
+	 * Number of positions whose moves were generated in the last search.
+	 */
+	private long expanded;
+
+	/**
+	 * Longest solution solveAStar() looks for, or 0 for no limit.
+	 */
+	private int maxMoves;
+
+	/**
+	 * Bucket queue of open positions, indexed by estimated solution length.
+	 */
+	private long[][] buckets;
+
+	/**
+	 * Number of entries in each bucket.
+	 */
+	private int[] bucketSizes;
+
+	/**
+	 * Codec for the positions of the IDA* search.
+	 */
+	private StateCodec idaCodec;
+
+	/**
+	 * Fewest moves each position was reached in during the current IDA*
+	 * iteration.
+	 */
+	private StateTable reached;
+
+	/**
+	 * Scratch key for the IDA* search.
+	 */
+	private long[] idaKey;
+
+	/**
+	 * Returns the number of positions whose moves were generated in the last
+	 * search.
+	 *
+	 * @return number of expanded positions
+	 */
+	public long getExpandedNodes() {
+		return expanded;
+	}
+
+	/**
+	 * Sets the longest solution solveAStar() looks for. Positions whose
+	 * estimated solution length is longer are not queued, so a board with no
+	 * solution that short is reported as EXHAUSTED.
+	 *
+	 * @param maxMoves maximum number of moves, or 0 for no limit
+	 */
+	public void setMaxMoves(int maxMoves) {
+		this.maxMoves = maxMoves;
+	}
+
+	/**
+	 * Searches for a shortest solution with A*, starting from the current
+	 * position of the board. The board is left in the position it was given in.
+	 *
+	 * @param board the board to solve
+	 * @return the moves of a shortest solution, empty if the board is already
+	 *         solved, or null if the board cannot be solved
+	 */
+	public ArrayList<Move> solveAStar(Board board) {
+		return solveAStar(board, new SearchLimits()).getBestSolution();
+	}
+
+	/**
+	 * Searches for a shortest solution with A* like solveAStar(Board), but stops
+	 * early when any of the given limits is reached. The node limit counts
+	 * expanded positions, and the memory limit applies to the estimated size of
+	 * the visited table and parent links. The board is left in the position it
+	 * was given in.
+	 *
+	 * @param board  the board to solve
+	 * @param limits bounds on time, nodes and memory
+	 * @return SOLVED with a shortest solution, EXHAUSTED if the board cannot be
+	 *         solved, or the limit that stopped the search with no solution
+	 */
+	public SolveResult solveAStar(Board board, SearchLimits limits) {
+		long startNanos = System.nanoTime();
+		long deadline = startNanos + limits.getTimeoutMillis() * 1000000L;
+		SolveStatus stopped = null;
+		expanded = 0;
+		ExitHeuristic heuristic = new ExitHeuristic(board);
+		StateCodec codec = new StateCodec(board);
+		long[] key = codec.newKey();
+		int[] offsets = new int[codec.getBoulderCount()];
+		StateTable table = new StateTable(codec.getWords());
+		ParentLinks links = new ParentLinks();
+		buckets = new long[16][];
+		bucketSizes = new int[16];
+
+		codec.encode(board, key);
+		long[] start = key.clone();
+		table.insert(key);
+		int estimate = heuristic.estimate(board);
+		if (withinLimit(estimate)) {
+			push(estimate, 0, 0);
+		}
+
+		ArrayList<Boulder> boulders = board.getBoulders();
+		Direction[] directions = Direction.values();
+		int[] solution = null;
+		int f = 0;
+		while (solution == null) {
+			// Find the lowest non-empty bucket, estimates never go below the current one
+			while (f < bucketSizes.length && bucketSizes[f] == 0) {
+				f += 1;
+			}
+			if (f == bucketSizes.length) {
+				break;
+			}
+			long entry = buckets[f][--bucketSizes[f]];
+			int moves = (int) (entry >>> 32);
+			int index = (int) entry;
+
+			// Skip entries superseded by a shorter path to the same position
+			if (table.getValue(index) != moves) {
+				continue;
+			}
+			table.getKey(index, key);
+			codec.decode(key, offsets);
+			board.setPosition(offsets);
+			if (board.isGameOver()) {
+				solution = links.path(index, 0);
+				break;
+			}
+			stopped = checkLimits(limits, deadline, table.size() * (codec.getWords() * 8L + 4 + 8 + 6));
+			if (stopped != null) {
+				break;
+			}
+			expanded += 1;
+
+			for (int i = 0; i < boulders.size(); ++i) {
+				Boulder b = boulders.get(i);
+				for (Direction dir : directions) {
+					if (!tryMove(board, b, dir)) {
+						continue;
+					}
+					codec.encode(board, key);
+					int child = table.insert(key);
+					if (child < 0) {
+						child = -child - 1;
+						if (table.getValue(child) <= moves + 1) {
+							board.undoMove();
+							continue;
+						}
+					}
+					table.setValue(child, moves + 1);
+					links.record(child, index, MoveCodec.encode(i, dir));
+					estimate = heuristic.estimate(board);
+					if (withinLimit(moves + 1 + estimate)) {
+						push(moves + 1 + estimate, moves + 1, child);
+					}
+					board.undoMove();
+				}
+			}
+		}
+
+		// Put the board back where it started
+		codec.decode(start, offsets);
+		board.setPosition(offsets);
+		buckets = null;
+		bucketSizes = null;
+		long elapsed = (System.nanoTime() - startNanos) / 1000000L;
+		if (solution == null) {
+			return new SolveResult(stopped != null ? stopped : SolveStatus.EXHAUSTED, null, expanded, table.size(),
+					elapsed);
+		}
+		ArrayList<Move> moves = MoveCodec.toMoves(solution, solution.length, boulders, MoveCodec.offsets(boulders));
+		return new SolveResult(SolveStatus.SOLVED, moves, expanded, table.size(), elapsed);
+	}
+
+	/**
+	 * Returns true if a position with the given estimated solution length is
+	 * worth queueing: it can reach an exit, within maxMoves if there is one.
+	 */
+	private boolean withinLimit(int f) {
+		return f < ExitHeuristic.UNREACHABLE && (maxMoves == 0 || f <= maxMoves);
+	}
+
+	/**
+	 * Returns the limit the search has reached before expanding another
+	 * position, or null if it can go on. The clock and memory are only checked
+	 * every CHECK_INTERVAL positions.
+	 */
+	private SolveStatus checkLimits(SearchLimits limits, long deadline, long memory) {
+		if (limits.getMaxNodes() > 0 && expanded >= limits.getMaxNodes()) {
+			return SolveStatus.NODE_LIMIT;
+		}
+		if (expanded % CHECK_INTERVAL != 0) {
+			return null;
+		}
+		if (limits.getTimeoutMillis() > 0 && System.nanoTime() - deadline >= 0) {
+			return SolveStatus.TIMED_OUT;
+		}
+		if (limits.getMaxMemoryBytes() > 0 && memory >= limits.getMaxMemoryBytes()) {
+			return SolveStatus.MEMORY_LIMIT;
+		}
+		return null;
+	}
+
+	/**
+	 * Searches for a shortest solution with IDA*, starting from the current
+	 * position of the board. The board is left in the position it was given in.
+	 *
+	 * @param board the board to solve
+	 * @return the moves of a shortest solution, empty if the board is already
+	 *         solved, or null if the board cannot be solved
+	 */
+	public ArrayList<Move> solveIdaStar(Board board) {
+		expanded = 0;
+		ExitHeuristic heuristic = new ExitHeuristic(board);
+		idaCodec = new StateCodec(board);
+		reached = new StateTable(idaCodec.getWords());
+		idaKey = idaCodec.newKey();
+		int startCount = board.getMoveCount();
+		ArrayList<Move> solution = null;
+
+		// An iteration with no cutoff returns UNREACHABLE, having reached every position it can
+		int bound = heuristic.estimate(board);
+		while (bound < ExitHeuristic.UNREACHABLE) {
+			reached.clear();
+			int next = deepen(board, heuristic, 0, bound, null, null);
+			if (next < 0) {
+				// Take the solution off the board's history, leaving the board as it was given
+				ArrayList<Move> history = board.getMoveHistory();
+				solution = new ArrayList<Move>(history.subList(startCount, history.size()));
+				board.undoMoves(board.getMoveCount() - startCount);
+				break;
+			}
+			bound = next;
+		}
+		idaCodec = null;
+		reached = null;
+		idaKey = null;
+		return solution;
+	}
+
+	/**
+	 * Depth first search from the current position, cut off where the moves made
+	 * plus the estimate exceed bound. Returns -1 with the solution left on the
+	 * board if one is found, otherwise the smallest estimate that exceeded bound,
+	 * or UNREACHABLE if nothing was cut off. A position already reached in this
+	 * iteration in as few moves is not searched again: everything below it was
+	 * searched with at least as much of the bound left, and its cutoffs were
+	 * already counted.
+	 */
+	private int deepen(Board board, ExitHeuristic heuristic, int moves, int bound, Boulder last, Direction back) {
+		int estimate = heuristic.estimate(board);
+		if (estimate == 0) {
+			return -1;
+		}
+		if (moves + estimate > bound) {
+			return moves + estimate;
+		}
+		idaCodec.encode(board, idaKey);
+		if (!reached.visit(idaKey, moves)) {
+			return ExitHeuristic.UNREACHABLE;
+		}
+		expanded += 1;
+
+		int next = ExitHeuristic.UNREACHABLE;
+		for (Boulder b : board.getBoulders()) {
+			for (Direction dir : Direction.values()) {
+				// Moving the last boulder straight back can never be part of a shortest solution
+				if (b == last && dir == back) {
+					continue;
+				}
+				if (!tryMove(board, b, dir)) {
+					continue;
+				}
+				int result = deepen(board, heuristic, moves + 1, bound, b, Board.opposite(dir));
+				if (result < 0) {
+					return -1;
+				}
+				next = Math.min(next, result);
+				board.undoMove();
+			}
+		}
+		return next;
+	}
+
+	/**
+	 * Adds an open position to the bucket for its estimated solution length.
+	 */
+	private void push(int f, int moves, int index) {
+		if (f >= buckets.length) {
+			int length = Math.max(buckets.length * 2, f + 1);
+			buckets = Arrays.copyOf(buckets, length);
+			bucketSizes = Arrays.copyOf(bucketSizes, length);
+		}
+		if (buckets[f] == null) {
+			buckets[f] = new long[64];
+		}
+		else if (bucketSizes[f] == buckets[f].length) {
+			buckets[f] = Arrays.copyOf(buckets[f], bucketSizes[f] * 2);
+		}
+		buckets[f][bucketSizes[f]++] = ((long) moves << 32) | index;
+	}
+
+	/**
+	 * Moves boulder b one cell in the given direction if it can, returning true
+	 * if the move was made.
+	 */
+	private static boolean tryMove(Board board, Boulder b, Direction dir) {
+		int count = board.getMoveCount();
+		board.grabBoulderAt(b.getFirstRow(), b.getFirstCol());
+		board.moveGrabbedBoulder(dir);
+		board.releaseBoulder();
+		return board.getMoveCount() != count;
+	}
+}
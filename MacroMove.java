@@ -0,0 +1,132 @@
+package api;
+
+import java.util.ArrayList;
+
+import hw3.Boulder;
+
+/**
+ * Represents sliding a boulder several cells in one direction, equivalent to
+ * the same number of one cell moves.
+ */
+public class MacroMove {
+	/**
+	 * the moved boulder
+	 */
+	private Boulder boulder;
+
+	/**
+	 * the direction the boulder is moved
+	 */
+	private Direction direction;
+
+	/**
+	 * number of cells the boulder is moved
+	 */
+	private int distance;
+
+	/**
+	 * first row of the boulder before the slide
+	 */
+	private int row;
+
+	/**
+	 * first column of the boulder before the slide
+	 */
+	private int col;
+
+	/**
+	 * Constructs a new slide of the given boulder by distance cells in the
+	 * given direction, made when the boulder's first cell was at the given row
+	 * and column.
+	 * 
+	 * @param boulder   the given boulder
+	 * @param direction the given direction
+	 * @param distance  number of cells, at least one
+	 * @param row       first row of the boulder before the slide
+	 * @param col       first column of the boulder before the slide
+	 */
+	public MacroMove(Boulder boulder, Direction direction, int distance, int row, int col) {
+		this.boulder = boulder;
+		this.direction = direction;
+		this.distance = distance;
+		this.row = row;
+		this.col = col;
+	}
+
+	/**
+	 * Returns the moved boulder.
+	 * 
+	 * @return the moved boulder
+	 */
+	public Boulder getBoulder() {
+		return boulder;
+	}
+
+	/**
+	 * Returns the moved direction.
+	 * 
+	 * @return the moved direction
+	 */
+	public Direction getDirection() {
+		return direction;
+	}
+
+	/**
+	 * Returns the number of cells the boulder is moved.
+	 * 
+	 * @return the distance
+	 */
+	public int getDistance() {
+		return distance;
+	}
+
+	/**
+	 * Returns the first row of the boulder before the slide.
+	 * 
+	 * @return row before the slide
+	 */
+	public int getRow() {
+		return row;
+	}
+
+	/**
+	 * Returns the first column of the boulder before the slide.
+	 * 
+	 * @return column before the slide
+	 */
+	public int getCol() {
+		return col;
+	}
+
+	/**
+	 * Returns the one cell moves that make up this slide, in order.
+	 * 
+	 * @return distance moves of the boulder in the slide's direction
+	 */
+	public ArrayList<Move> toMoves() {
+		ArrayList<Move> moves = new ArrayList<Move>(distance);
+		int r = row;
+		int c = col;
+		for (int i = 0; i < distance; ++i) {
+			moves.add(new Move(boulder, direction, r, c));
+			if (direction == Direction.LEFT) {
+				c -= 1;
+			}
+			else if (direction == Direction.RIGHT) {
+				c += 1;
+			}
+			else if (direction == Direction.UP) {
+				r -= 1;
+			}
+			else {
+				r += 1;
+			}
+		}
+		return moves;
+	}
+
+	@Override
+	public String toString() {
+		return "(" + row + ", " + col + ") " + distance + (distance == 1 ? " cell " : " cells ") + direction;
+	}
+}
@@ -0,0 +1,232 @@
+package hw3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import api.MacroMove;
+import api.Move;
+import api.Orientation;
+
+/**
+ * Finds a solution to a board with the fewest one cell moves by searching over
+ * macro moves, where sliding a boulder any number of cells along its lane is a
+ * single edge (see Board.getAllMacroMoves()). The intermediate positions of a
+ * long slide are reached directly instead of one level at a time, which keeps
+ * the search shallow on open boards.
+ * <p>
+ * Each slide costs as many moves as cells it covers, so the search is
+ * Dijkstra's algorithm rather than a breadth first search, which would find
+ * the fewest slides instead of the fewest moves. Costs are small integers, so
+ * the open list is a bucket queue of state indexes indexed by moves made, and
+ * a position is final, and its solution shortest, when its bucket is reached.
+ * Positions are stored in a StateTable holding the fewest moves found so far,
+ * with a ParentLinks entry recording the boulder and direction of the slide
+ * that reached each position. The slide distance is recovered from the two
+ * positions' keys when the solution is rebuilt.
+ * @Author Ethen Santana
+ */
+public class MacroSolver {
+	/**
+	 * Number of positions whose slides were generated in the last search.
+	 */
+	private int expanded;
+
+	/**
+	 * Number of distinct positions reached in the last search.
+	 */
+	private int visited;
+
+	/**
+	 * Bucket queue of open state indexes, indexed by moves made.
+	 */
+	private int[][] buckets;
+
+	/**
+	 * Number of entries in each bucket.
+	 */
+	private int[] bucketSizes;
+
+	/**
+	 * Searches for a solution with the fewest one cell moves to the given
+	 * board, starting from its current position. The board is left in the
+	 * position it was given in.
+	 *
+	 * @param board the board to solve
+	 * @return the moves of a shortest solution, empty if the board is already
+	 *         solved, or null if the board cannot be solved
+	 */
+	public ArrayList<Move> solve(Board board) {
+		ArrayList<MacroMove> slides = solveMacro(board);
+		if (slides == null) {
+			return null;
+		}
+		ArrayList<Move> moves = new ArrayList<Move>();
+		for (MacroMove slide : slides) {
+			moves.addAll(slide.toMoves());
+		}
+		return moves;
+	}
+
+	/**
+	 * Searches for a solution with the fewest one cell moves to the given
+	 * board, like solve(), and returns it as slides, consecutive moves of the
+	 * same boulder in the same direction being one slide. The board is left in
+	 * the position it was given in.
+	 *
+	 * @param board the board to solve
+	 * @return the slides of a shortest solution, empty if the board is already
+	 *         solved, or null if the board cannot be solved
+	 */
+	public ArrayList<MacroMove> solveMacro(Board board) {
+		expanded = 0;
+		visited = 0;
+		if (board.isGameOver()) {
+			return new ArrayList<MacroMove>();
+		}
+
+		StateCodec codec = new StateCodec(board);
+		long[] key = codec.newKey();
+		int[] offsets = new int[codec.getBoulderCount()];
+		int[] child = new int[codec.getBoulderCount()];
+		StateTable table = new StateTable(codec.getWords());
+		ParentLinks links = new ParentLinks();
+		buckets = new int[16][];
+		bucketSizes = new int[16];
+
+		codec.encode(board, key);
+		long[] start = key.clone();
+		table.insert(key);
+		push(0, 0);
+
+		ArrayList<Boulder> boulders = board.getBoulders();
+		int goal = -1;
+		for (int moves = 0; moves < bucketSizes.length && goal < 0; ++moves) {
+			while (bucketSizes[moves] > 0) {
+				int head = buckets[moves][--bucketSizes[moves]];
+
+				// Skip entries superseded by a shorter path to the same position
+				if (table.getValue(head) != moves) {
+					continue;
+				}
+				table.getKey(head, key);
+				codec.decode(key, offsets);
+				board.setPosition(offsets);
+				if (board.isGameOver()) {
+					goal = head;
+					break;
+				}
+				expanded += 1;
+
+				// Slides are listed in boulder order
+				int i = 0;
+				for (MacroMove slide : board.getAllMacroMoves()) {
+					while (boulders.get(i) != slide.getBoulder()) {
+						i += 1;
+					}
+					int step = MoveCodec.step(MoveCodec.encode(i, slide.getDirection()));
+					System.arraycopy(offsets, 0, child, 0, offsets.length);
+					child[i] += step * slide.getDistance();
+					codec.encode(child, key);
+					int index = table.insert(key);
+					int cost = moves + slide.getDistance();
+					if (index < 0) {
+						index = -index - 1;
+						if (table.getValue(index) <= cost) {
+							continue;
+						}
+					}
+					table.setValue(index, cost);
+					links.record(index, head, MoveCodec.encode(i, slide.getDirection()));
+					push(cost, index);
+				}
+			}
+		}
+		visited = table.size();
+		buckets = null;
+		bucketSizes = null;
+
+		ArrayList<MacroMove> solution = null;
+		if (goal >= 0) {
+			solution = rebuild(goal, table, links, codec, boulders);
+		}
+
+		// Put the board back where it started
+		codec.decode(start, offsets);
+		board.setPosition(offsets);
+		return solution;
+	}
+
+	/**
+	 * Adds an open position to the bucket for its number of moves.
+	 */
+	private void push(int moves, int index) {
+		if (moves >= buckets.length) {
+			int length = Math.max(buckets.length * 2, moves + 1);
+			buckets = Arrays.copyOf(buckets, length);
+			bucketSizes = Arrays.copyOf(bucketSizes, length);
+		}
+		if (buckets[moves] == null) {
+			buckets[moves] = new int[64];
+		}
+		else if (bucketSizes[moves] == buckets[moves].length) {
+			buckets[moves] = Arrays.copyOf(buckets[moves], bucketSizes[moves] * 2);
+		}
+		buckets[moves][bucketSizes[moves]++] = index;
+	}
+
+	/**
+	 * Returns the number of positions whose slides were generated in the last
+	 * search.
+	 *
+	 * @return number of expanded positions
+	 */
+	public int getExpandedNodes() {
+		return expanded;
+	}
+
+	/**
+	 * Returns the number of distinct positions reached in the last search.
+	 *
+	 * @return number of visited positions
+	 */
+	public int getVisitedStates() {
+		return visited;
+	}
+
+	/**
+	 * Follows parent links from the goal back to the start position and returns
+	 * the slides in playing order, each with its distance and starting cell
+	 * taken from the lane offsets of the positions it joins. A slide that
+	 * continues the one before it, with the same boulder and direction, is
+	 * merged into it.
+	 */
+	private static ArrayList<MacroMove> rebuild(int goal, StateTable table, ParentLinks links, StateCodec codec,
+			ArrayList<Boulder> boulders) {
+		long[] key = codec.newKey();
+		int[] from = new int[codec.getBoulderCount()];
+		int[] to = new int[codec.getBoulderCount()];
+		ArrayList<MacroMove> solution = new ArrayList<MacroMove>();
+		for (int index = goal; index != 0; index = links.getParent(index)) {
+			int move = links.getMove(index);
+			int i = MoveCodec.boulder(move);
+			table.getKey(index, key);
+			codec.decode(key, to);
+			table.getKey(links.getParent(index), key);
+			codec.decode(key, from);
+
+			Boulder b = boulders.get(i);
+			int distance = Math.abs(to[i] - from[i]);
+			if (!solution.isEmpty() && solution.get(0).getBoulder() == b
+					&& solution.get(0).getDirection() == MoveCodec.direction(move)) {
+				distance += solution.remove(0).getDistance();
+			}
+			if (b.getOrientation() == Orientation.HORIZONTAL) {
+				solution.add(0, new MacroMove(b, MoveCodec.direction(move), distance, b.getFirstRow(), from[i]));
+			}
+			else {
+				solution.add(0, new MacroMove(b, MoveCodec.direction(move), distance, from[i], b.getFirstCol()));
+			}
+		}
+		return solution;
+	}
+}
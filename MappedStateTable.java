@@ -0,0 +1,448 @@
+package hw3;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Visited position table stored in a memory mapped file instead of on the
+ * heap, for state spaces too large to fit in memory. The table is a list of
+ * open addressing levels, each twice the size of the one before, spread over
+ * mapped segments of at most 1 GB each, so the file can be far larger than a
+ * single buffer and the operating system pages it in and out as needed.
+ * <p>
+ * New positions go into the newest level. When it is half full the next level
+ * is added at the end of the file, and positions already stored stay where
+ * they are, so the table grows as the search needs it without ever rehashing.
+ * A lookup checks each level in turn, which costs little since there are only
+ * as many levels as doublings of the first one. A thread that inserts a
+ * position just as a level is added may store it a second time in the new
+ * level, in which case the position is only searched twice.
+ * <p>
+ * Each slot is one long holding the generation the slot was written in (high
+ * half) and the fewest moves the position was reached in plus one (low half,
+ * 0 while the key is being written), followed by the key words. Slots are
+ * claimed and move counts are lowered with compare-and-set on the mapped
+ * memory, so any number of threads can insert concurrently.
+ * <p>
+ * clear() starts a new generation, and slots of earlier generations count as
+ * empty, so clearing takes constant time however large the file is. Opening
+ * an existing file reuses its space the same way: the positions it holds from
+ * earlier runs are discarded, and so are slots that a run which crashed left
+ * half written.
+ * @Author Ethen Santana
+ */
+public class MappedStateTable implements VisitedStates, Closeable {
+	/**
+	 * Identifies a table file.
+	 */
+	private static final long MAGIC = 0x4250564953495445L;
+
+	/**
+	 * Size of the file header in bytes: magic, key words, slots of the first
+	 * level, size, generation and number of levels in the file.
+	 */
+	private static final int HEADER = 48;
+
+	/**
+	 * Maximum size of one mapped segment in bytes.
+	 */
+	private static final long SEGMENT = 1L << 30;
+
+	/**
+	 * Bits of the slot word holding the move count plus one.
+	 */
+	private static final long MOVES_MASK = 0xFFFFFFFFL;
+
+	/**
+	 * Longest time to wait for another thread to publish a slot's key before
+	 * deciding that it never will.
+	 */
+	private static final long PUBLISH_NANOS = 1000000000L;
+
+	/**
+	 * Atomic long access to the mapped buffers.
+	 */
+	private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class,
+			ByteOrder.nativeOrder());
+
+	/**
+	 * One open addressing level of the table.
+	 */
+	private static final class Level {
+		/**
+		 * Number of slots, a power of two.
+		 */
+		final long slots;
+
+		/**
+		 * The mapped segments holding the slots.
+		 */
+		final MappedByteBuffer[] segments;
+
+		/**
+		 * Constructs a level of the given slots and segments.
+		 *
+		 * @param slots    number of slots
+		 * @param segments the mapped segments
+		 */
+		Level(long slots, MappedByteBuffer[] segments) {
+			this.slots = slots;
+			this.segments = segments;
+		}
+	}
+
+	/**
+	 * Number of longs in each key.
+	 */
+	private int words;
+
+	/**
+	 * Bytes per slot.
+	 */
+	private int slotBytes;
+
+	/**
+	 * Slots per mapped segment.
+	 */
+	private long slotsPerSegment;
+
+	/**
+	 * Number of slots of the first level.
+	 */
+	private long firstSlots;
+
+	/**
+	 * The current generation, never 0, so that never written slots are empty.
+	 */
+	private long generation;
+
+	/**
+	 * Every level the file has room for, in file order.
+	 */
+	private ArrayList<Level> mapped = new ArrayList<Level>();
+
+	/**
+	 * The levels in use by the current generation; new positions go into the
+	 * last one.
+	 */
+	private volatile Level[] levels;
+
+	/**
+	 * Size at which the next level is put into use.
+	 */
+	private volatile long growAt;
+
+	/**
+	 * The mapped file header.
+	 */
+	private MappedByteBuffer header;
+
+	/**
+	 * The file channel, kept open until close().
+	 */
+	private FileChannel channel;
+
+	/**
+	 * Opens an empty table stored in the given file, creating the file with a
+	 * first level for capacity positions if it does not exist. An existing file
+	 * must have been created for keys of the same length; its levels are reused
+	 * and its positions discarded.
+	 *
+	 * @param file     the table file
+	 * @param words    number of longs per key
+	 * @param capacity positions the first level holds, used only for a new
+	 *                 file; the table grows beyond it as needed
+	 * @throws IOException if the file cannot be opened or mapped, or holds a
+	 *                     table for a different key length
+	 */
+	public MappedStateTable(Path file, int words, long capacity) throws IOException {
+		this.words = words;
+		slotBytes = (words + 1) * 8;
+		slotsPerSegment = SEGMENT / slotBytes;
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		try {
+			header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER);
+			header.order(ByteOrder.nativeOrder());
+
+			int count = 1;
+			if (header.getLong(0) == MAGIC) {
+				if (header.getLong(8) != words) {
+					throw new IOException("table file " + file + " holds keys of " + header.getLong(8) + " words");
+				}
+				firstSlots = header.getLong(16);
+				generation = header.getLong(32);
+				count = (int) header.getLong(40);
+			}
+			else {
+				// Keep the load factor at or below one half
+				firstSlots = Long.highestOneBit(Math.max(16, capacity) * 2 - 1) * 2;
+				header.putLong(8, words);
+				header.putLong(16, firstSlots);
+				header.putLong(24, 0);
+				header.putLong(32, 0);
+				header.putLong(40, 1);
+				header.putLong(0, MAGIC);
+			}
+			for (int i = 0; i < count; ++i) {
+				mapped.add(map(i));
+			}
+		}
+		catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+		newGeneration();
+	}
+
+	/**
+	 * Records the move count of a position, keeping the smallest. Safe to call
+	 * from any number of threads.
+	 *
+	 * @param key   the packed position
+	 * @param moves number of moves made to reach the position
+	 * @return true if the position is new or its move count was lowered
+	 * @throws UncheckedIOException if the table needs another level and the
+	 *                              file cannot be extended
+	 */
+	@Override
+	public boolean visit(long[] key, int moves) {
+		long hash = StateTable.hash(key);
+		while (true) {
+			Level[] active = levels;
+
+			// Positions stored in older levels stay there
+			for (int i = 0; i < active.length - 1; ++i) {
+				int found = probe(active[i], hash, key, moves, false);
+				if (found >= 0) {
+					return found == 1;
+				}
+			}
+			int found = probe(active[active.length - 1], hash, key, moves, true);
+			if (found >= 0) {
+				if (found == 1 && sizeLong() >= growAt) {
+					grow(active);
+				}
+				return found == 1;
+			}
+
+			// The newest level filled up before the next one was added
+			grow(active);
+		}
+	}
+
+	/**
+	 * Looks for a position in one level, lowering its move count if it is
+	 * there and, if insert is true, storing it in the first empty slot if it
+	 * is not. Returns 1 if the position was stored or its count lowered, 0 if
+	 * it was already reached in the same or fewer moves, or -1 if it is not
+	 * in the level and was not stored.
+	 */
+	private int probe(Level level, long hash, long[] key, int moves, boolean insert) {
+		long current = generation << 32;
+		long mask = level.slots - 1;
+		long slot = hash & mask;
+		for (long probes = 0; probes <= mask; ++probes) {
+			MappedByteBuffer segment = level.segments[(int) (slot / slotsPerSegment)];
+			int base = (int) (slot % slotsPerSegment) * slotBytes;
+			long state = (long) LONGS.getVolatile(segment, base);
+
+			// A slot of an earlier generation is empty, so the position is not further on
+			if (state >>> 32 != generation) {
+				if (!insert) {
+					return -1;
+				}
+
+				// Claim the slot, write the key and then publish the move count
+				if (LONGS.compareAndSet(segment, base, state, current)) {
+					for (int i = 0; i < words; ++i) {
+						segment.putLong(base + 8 + i * 8, key[i]);
+					}
+					LONGS.setVolatile(segment, base, current | (moves + 1L));
+					LONGS.getAndAdd(header, 24, 1L);
+					return 1;
+				}
+				state = (long) LONGS.getVolatile(segment, base);
+			}
+
+			state = await(segment, base, state);
+			if (matches(key, segment, base)) {
+				while (moves + 1L < (state & MOVES_MASK)) {
+					if (LONGS.compareAndSet(segment, base, state, current | (moves + 1L))) {
+						return 1;
+					}
+					state = (long) LONGS.getVolatile(segment, base);
+				}
+				return 0;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Waits for another thread to finish writing the key of the slot at base
+	 * and returns the slot's published state. The wait is bounded, since a
+	 * slot is only left unpublished if its writer died.
+	 *
+	 * @throws IllegalStateException if the key is not published in time
+	 */
+	private long await(MappedByteBuffer segment, int base, long state) {
+		if ((state & MOVES_MASK) != 0) {
+			return state;
+		}
+		long start = System.nanoTime();
+		while ((state & MOVES_MASK) == 0) {
+			if (System.nanoTime() - start > PUBLISH_NANOS) {
+				throw new IllegalStateException("visited state table slot was never published");
+			}
+			Thread.onSpinWait();
+			state = (long) LONGS.getVolatile(segment, base);
+		}
+		return state;
+	}
+
+	/**
+	 * Puts the next level into use if active is still the current list of
+	 * levels, mapping it at the end of the file if it has never been used.
+	 *
+	 * @throws UncheckedIOException if the file cannot be extended
+	 */
+	private synchronized void grow(Level[] active) {
+		if (levels != active) {
+			return;
+		}
+		int next = active.length;
+		if (next == mapped.size()) {
+			try {
+				mapped.add(map(next));
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			header.putLong(40, mapped.size());
+		}
+		Level[] grown = Arrays.copyOf(active, next + 1);
+		grown[next] = mapped.get(next);
+		growAt = sizeLong() + grown[next].slots / 2;
+		levels = grown;
+	}
+
+	/**
+	 * Maps the level with the given number, extending the file if needed.
+	 * Level i has firstSlots * 2^i slots and follows the levels before it.
+	 */
+	private Level map(int index) throws IOException {
+		long slots = firstSlots << index;
+		long start = HEADER + firstSlots * ((1L << index) - 1) * slotBytes;
+		MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((slots + slotsPerSegment - 1) / slotsPerSegment)];
+		for (int i = 0; i < segments.length; ++i) {
+			long first = i * slotsPerSegment;
+			long length = Math.min(slotsPerSegment, slots - first) * slotBytes;
+			segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, start + first * slotBytes, length);
+			segments[i].order(ByteOrder.nativeOrder());
+		}
+		return new Level(slots, segments);
+	}
+
+	/**
+	 * Removes every position by starting a new generation, and goes back to
+	 * storing new positions in the first level. Must not be called while
+	 * other threads are visiting.
+	 */
+	@Override
+	public void clear() {
+		newGeneration();
+	}
+
+	/**
+	 * Starts a new generation with only the first level in use.
+	 */
+	private void newGeneration() {
+		generation += 1;
+		if (generation > MOVES_MASK) {
+			// Wrap around, first erasing slots that a reused generation number would mistake for its own
+			for (Level level : mapped) {
+				for (MappedByteBuffer segment : level.segments) {
+					for (int base = 0; base < segment.capacity(); base += slotBytes) {
+						segment.putLong(base, 0);
+					}
+				}
+			}
+			generation = 1;
+		}
+		header.putLong(32, generation);
+		LONGS.setVolatile(header, 24, 0L);
+		Level[] first = { mapped.get(0) };
+		growAt = firstSlots / 2;
+		levels = first;
+	}
+
+	/**
+	 * Returns the number of positions in the table.
+	 *
+	 * @return number of positions
+	 */
+	@Override
+	public int size() {
+		return (int) Math.min(Integer.MAX_VALUE, sizeLong());
+	}
+
+	/**
+	 * Returns the number of positions in the table as a long.
+	 *
+	 * @return number of positions
+	 */
+	public long sizeLong() {
+		return (long) LONGS.getVolatile(header, 24);
+	}
+
+	/**
+	 * Returns the number of levels in use, one more for each time the table
+	 * has doubled since it was last cleared.
+	 *
+	 * @return number of levels
+	 */
+	public int getLevelCount() {
+		return levels.length;
+	}
+
+	/**
+	 * Writes any changes to the file and closes it. The mapped memory is
+	 * released once the table is no longer referenced.
+	 *
+	 * @throws IOException if the file cannot be written
+	 */
+	@Override
+	public void close() throws IOException {
+		header.force();
+		for (Level level : mapped) {
+			for (MappedByteBuffer segment : level.segments) {
+				segment.force();
+			}
+		}
+		channel.close();
+	}
+
+	/**
+	 * Returns true if the slot at base holds the given key.
+	 */
+	private boolean matches(long[] key, MappedByteBuffer segment, int base) {
+		for (int i = 0; i < words; ++i) {
+			if (segment.getLong(base + 8 + i * 8) != key[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
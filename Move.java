@@ -19,14 +19,40 @@ public class Move {
 	private Direction direction;
 
 	/**
-	 * Constructs a new move for a given boulder and direction.
+	 * first row of the boulder when the move was made
+	 */
+	private int row;
+
+	/**
+	 * first column of the boulder when the move was made
+	 */
+	private int col;
+
+	/**
+	 * Constructs a new move for a given boulder and direction, made from the
+	 * boulder's current position.
 	 * 
 	 * @param grabbedBoulder  the given boulder
 	 * @param direction       the given direction
 	 */
 	public Move(Boulder grabbedBoulder, Direction direction) {
+		this(grabbedBoulder, direction, grabbedBoulder.getFirstRow(), grabbedBoulder.getFirstCol());
+	}
+
+	/**
+	 * Constructs a new move for a given boulder and direction, made when the
+	 * boulder's first cell was at the given row and column.
+	 * 
+	 * @param grabbedBoulder  the given boulder
+	 * @param direction       the given direction
+	 * @param row             first row of the boulder before the move
+	 * @param col             first column of the boulder before the move
+	 */
+	public Move(Boulder grabbedBoulder, Direction direction, int row, int col) {
 		this.boulder = grabbedBoulder;
 		this.direction = direction;
+		this.row = row;
+		this.col = col;
 	}
 
 	/**
@@ -47,8 +73,26 @@ public class Move {
 		return direction;
 	}
 
+	/**
+	 * Returns the first row of the boulder when the move was made.
+	 * 
+	 * @return row before the move
+	 */
+	public int getRow() {
+		return row;
+	}
+
+	/**
+	 * Returns the first column of the boulder when the move was made.
+	 * 
+	 * @return column before the move
+	 */
+	public int getCol() {
+		return col;
+	}
+
 	@Override
 	public String toString() {
-		return "(" + boulder.getFirstRow() + ", " + boulder.getFirstCol() + ") one cell " + direction;
+		return "(" + row + ", " + col + ") one cell " + direction;
 	}
 }
@@ -0,0 +1,119 @@
+package hw3;
+
+import java.util.ArrayList;
+
+import api.Direction;
+import api.Move;
+import api.Orientation;
+
+/**
+ * Encodes a move as a small int, (boulder index * 4 + direction ordinal),
+ * where the boulder index is its position in the board's boulder list. Encoded
+ * moves fit in a short for boards with up to 8192 boulders, hold no reference to
+ * a Boulder and can be turned back into Move objects when they are needed.
+ * @Author Ethen Santana
+ */
+public class MoveCodec {
+	/**
+	 * All directions, indexed by ordinal.
+	 */
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	/**
+	 * Encodes a move of the boulder at the given index.
+	 *
+	 * @param boulder index of the boulder in the board's boulder list
+	 * @param dir     the direction of the move
+	 * @return the encoded move
+	 */
+	public static int encode(int boulder, Direction dir) {
+		return boulder * 4 + dir.ordinal();
+	}
+
+	/**
+	 * Returns the index of the boulder moved by an encoded move.
+	 *
+	 * @param move the encoded move
+	 * @return index of the boulder in the board's boulder list
+	 */
+	public static int boulder(int move) {
+		return move >> 2;
+	}
+
+	/**
+	 * Returns the direction of an encoded move.
+	 *
+	 * @param move the encoded move
+	 * @return the direction
+	 */
+	public static Direction direction(int move) {
+		return DIRECTIONS[move & 3];
+	}
+
+	/**
+	 * Returns the encoded move that undoes the given one.
+	 *
+	 * @param move the encoded move
+	 * @return the same boulder moving in the opposite direction
+	 */
+	public static int reverse(int move) {
+		return encode(boulder(move), Board.opposite(direction(move)));
+	}
+
+	/**
+	 * Returns how far an encoded move changes its boulder's lane offset: -1 for
+	 * moves left and up, 1 for moves right and down.
+	 *
+	 * @param move the encoded move
+	 * @return the change in lane offset
+	 */
+	public static int step(int move) {
+		Direction dir = direction(move);
+		return dir == Direction.LEFT || dir == Direction.UP ? -1 : 1;
+	}
+
+	/**
+	 * Returns the current lane offset of every boulder: its column if it is
+	 * horizontal, its row if it is vertical.
+	 *
+	 * @param boulders the boulders
+	 * @return one lane offset per boulder
+	 */
+	public static int[] offsets(ArrayList<Boulder> boulders) {
+		int[] offsets = new int[boulders.size()];
+		for (int i = 0; i < offsets.length; ++i) {
+			Boulder b = boulders.get(i);
+			offsets[i] = b.getOrientation() == Orientation.HORIZONTAL ? b.getFirstCol() : b.getFirstRow();
+		}
+		return offsets;
+	}
+
+	/**
+	 * Decodes a sequence of encoded moves made from the given lane offsets. Each
+	 * Move records the position its boulder had when the move was made. The
+	 * boulders themselves are not moved.
+	 *
+	 * @param moves    the encoded moves
+	 * @param count    number of moves to decode, starting at index 0
+	 * @param boulders the boulders of the board the moves were made on
+	 * @param offsets  lane offset of each boulder before the first move, updated
+	 *                 to the offsets after the last one
+	 * @return the decoded moves in the same order
+	 */
+	public static ArrayList<Move> toMoves(int[] moves, int count, ArrayList<Boulder> boulders, int[] offsets) {
+		ArrayList<Move> result = new ArrayList<Move>(count);
+		for (int i = 0; i < count; ++i) {
+			int index = boulder(moves[i]);
+			Direction dir = direction(moves[i]);
+			Boulder b = boulders.get(index);
+			if (b.getOrientation() == Orientation.HORIZONTAL) {
+				result.add(new Move(b, dir, b.getFirstRow(), offsets[index]));
+			}
+			else {
+				result.add(new Move(b, dir, offsets[index], b.getFirstCol()));
+			}
+			offsets[index] += step(moves[i]);
+		}
+		return result;
+	}
+}
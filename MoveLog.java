@@ -0,0 +1,223 @@
+package hw3;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import api.Direction;
+
+/**
+ * An immutable record of the moves of a game, as (boulder index, direction)
+ * pairs encoded by MoveCodec, together with the number of boulders and the
+ * Zobrist hash of the position the moves start from. A log holds no reference
+ * to a Board or Boulder, so it stays correct however the board moves later.
+ * <p>
+ * A log is written in a small binary format: a header (magic number, boulder
+ * count, start hash and move count) followed by one byte per move, or two
+ * bytes per move for boards with more than 64 boulders. It can be replayed on
+ * a fresh Board built from the same description, checking every move, so
+ * recorded games can be archived and verified later.
+ * @Author Ethen Santana
+ */
+public final class MoveLog {
+	/**
+	 * Identifies a move log.
+	 */
+	private static final int MAGIC = 0x42504D4C;
+
+	/**
+	 * Largest number of boulders whose encoded moves fit in one byte.
+	 */
+	private static final int BYTE_BOULDERS = 64;
+
+	/**
+	 * The encoded moves.
+	 */
+	private final short[] moves;
+
+	/**
+	 * Number of boulders of the board the moves were made on.
+	 */
+	private final int boulders;
+
+	/**
+	 * Zobrist hash (see Board.getHash()) of the position before the first move.
+	 */
+	private final long startHash;
+
+	/**
+	 * Constructs a log of the first count encoded moves.
+	 *
+	 * @param moves     the encoded moves, copied
+	 * @param count     number of moves
+	 * @param boulders  number of boulders of the board
+	 * @param startHash hash of the position before the first move
+	 */
+	MoveLog(int[] moves, int count, int boulders, long startHash) {
+		this.moves = new short[count];
+		for (int i = 0; i < count; ++i) {
+			this.moves[i] = (short) moves[i];
+		}
+		this.boulders = boulders;
+		this.startHash = startHash;
+	}
+
+	/**
+	 * Returns the number of moves.
+	 *
+	 * @return number of moves
+	 */
+	public int size() {
+		return moves.length;
+	}
+
+	/**
+	 * Returns an encoded move.
+	 *
+	 * @param index index of the move, 0 for the first
+	 * @return the encoded move
+	 */
+	public int get(int index) {
+		return moves[index] & 0xFFFF;
+	}
+
+	/**
+	 * Returns the index of the boulder moved by a move.
+	 *
+	 * @param index index of the move, 0 for the first
+	 * @return index of the boulder in the board's boulder list
+	 */
+	public int getBoulder(int index) {
+		return MoveCodec.boulder(get(index));
+	}
+
+	/**
+	 * Returns the direction of a move.
+	 *
+	 * @param index index of the move, 0 for the first
+	 * @return the direction
+	 */
+	public Direction getDirection(int index) {
+		return MoveCodec.direction(get(index));
+	}
+
+	/**
+	 * Returns the number of boulders of the board the moves were made on.
+	 *
+	 * @return number of boulders
+	 */
+	public int getBoulderCount() {
+		return boulders;
+	}
+
+	/**
+	 * Returns the hash of the position before the first move.
+	 *
+	 * @return the Zobrist hash
+	 */
+	public long getStartHash() {
+		return startHash;
+	}
+
+	/**
+	 * Makes every move of the log on the given board, which must be in the
+	 * position the log starts from. Each move is checked before it is made, and
+	 * if any is not legal the moves already made are undone and the board is
+	 * left as it was given.
+	 *
+	 * @param board the board to replay on
+	 * @throws IllegalArgumentException if the board has a different number of
+	 *                                  boulders or position, or a move is not
+	 *                                  legal
+	 */
+	public void replay(Board board) {
+		if (board.getBoulders().size() != boulders || board.getHash() != startHash) {
+			throw new IllegalArgumentException("board is not in the position the log starts from");
+		}
+		for (int i = 0; i < moves.length; ++i) {
+			int move = get(i);
+			if (MoveCodec.boulder(move) >= boulders || !board.applyMove(move)) {
+				board.undoMoves(i);
+				throw new IllegalArgumentException("move " + i + " (" + MoveCodec.boulder(move) + ":"
+						+ MoveCodec.direction(move) + ") is not legal");
+			}
+		}
+	}
+
+	/**
+	 * Writes the log in its binary format.
+	 *
+	 * @param stream the stream to write to, left open
+	 * @throws IOException if the stream cannot be written
+	 */
+	public void writeTo(OutputStream stream) throws IOException {
+		DataOutputStream out = new DataOutputStream(stream);
+		out.writeInt(MAGIC);
+		out.writeInt(boulders);
+		out.writeLong(startHash);
+		out.writeInt(moves.length);
+		for (short move : moves) {
+			if (boulders <= BYTE_BOULDERS) {
+				out.writeByte(move);
+			}
+			else {
+				out.writeShort(move);
+			}
+		}
+		out.flush();
+	}
+
+	/**
+	 * Reads a log written by writeTo().
+	 *
+	 * @param stream the stream to read from, left open
+	 * @return the log
+	 * @throws IOException if the stream cannot be read or does not hold a log
+	 */
+	public static MoveLog readFrom(InputStream stream) throws IOException {
+		DataInputStream in = new DataInputStream(stream);
+		if (in.readInt() != MAGIC) {
+			throw new IOException("not a move log");
+		}
+		int boulders = in.readInt();
+		long startHash = in.readLong();
+		int count = in.readInt();
+		if (boulders < 0 || count < 0) {
+			throw new IOException("corrupt move log");
+		}
+		int[] moves = new int[count];
+		for (int i = 0; i < count; ++i) {
+			moves[i] = boulders <= BYTE_BOULDERS ? in.readUnsignedByte() : in.readUnsignedShort();
+		}
+		return new MoveLog(moves, count, boulders, startHash);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof MoveLog)) {
+			return false;
+		}
+		MoveLog other = (MoveLog) obj;
+		return boulders == other.boulders && startHash == other.startHash && Arrays.equals(moves, other.moves);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(moves) * 31 + Long.hashCode(startHash);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder buff = new StringBuilder();
+		for (int i = 0; i < moves.length; ++i) {
+			if (i > 0) {
+				buff.append(" ");
+			}
+			buff.append(getBoulder(i)).append(":").append(getDirection(i));
+		}
+		return buff.toString();
+	}
+}
@@ -0,0 +1,555 @@
+package hw3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import api.Move;
+
+/**
+ * A puzzle solver that finds exactly the solutions of Solver, in the same
+ * order, using every thread of a fork/join pool.
+ * <p>
+ * Solver searches depth first and skips a position already reached in the
+ * same or fewer moves earlier in its search. Since moves are tried in the
+ * order of getAllPossibleMoves(), "earlier" means first by move order, and
+ * whether a path is searched depends only on the paths before it in that
+ * order. This solver builds the same search tree one depth at a time instead.
+ * Every position of a depth is expanded in parallel, with the frontier split
+ * into fork/join tasks that idle threads steal. Each child position reached
+ * keeps only the path that comes first by move order, and that path is
+ * searched if it comes before every path the position was already searched
+ * from. Which paths are searched therefore never depends on thread timing, and
+ * the solutions are sorted into the order Solver finds them in.
+ * <p>
+ * Tasks expand immutable Position snapshots, so no board is copied or locked,
+ * and share one ConcurrentStateTable that gives every position reached an
+ * index. The search tree keeps the parent and move of each searched path.
+ * The results match Solver when it uses its default in-memory visited table
+ * without symmetry reduction.
+ * @Author Ethen Santana
+ */
+public class ParallelSolver {
+	/**
+	 * Largest number of positions or candidates a task handles without
+	 * splitting.
+	 */
+	private static final int GRAIN = 64;
+
+	/**
+	 * Number of bits of a position index that select a slot of a chunk.
+	 */
+	private static final int CHUNK_BITS = 16;
+
+	/**
+	 * Pending path of a position that no path reached at the current depth.
+	 */
+	private static final long NONE = -1;
+
+	/**
+	 * Maximum number of moves allowed in the search.
+	 */
+	private int maxMoves;
+
+	/**
+	 * Pool running the search tasks.
+	 */
+	private ForkJoinPool pool;
+
+	/**
+	 * Number of positions the visited table holds before it first grows.
+	 */
+	private int capacity;
+
+	/**
+	 * Encodes boards into visited keys, shared read-only by all tasks.
+	 */
+	private StateCodec codec;
+
+	/**
+	 * Gives every position reached an index.
+	 */
+	private ConcurrentStateTable seen;
+
+	/**
+	 * Most legal moves a position can have, two per boulder.
+	 */
+	private int branching;
+
+	/**
+	 * Parent node of each node of the search tree, -1 for the root.
+	 */
+	private int[] parents;
+
+	/**
+	 * Encoded move from its parent to each node, -1 for the root.
+	 */
+	private int[] moves;
+
+	/**
+	 * Number of moves from the start of the search to each node.
+	 */
+	private int[] depths;
+
+	/**
+	 * Number of nodes in the search tree.
+	 */
+	private int nodeCount;
+
+	/**
+	 * Node of the first node of the current frontier.
+	 */
+	private int frontierStart;
+
+	/**
+	 * Position of each node of the current frontier.
+	 */
+	private Position[] frontier;
+
+	/**
+	 * Per position index, in chunks: the first path by move order that
+	 * reached the position at the current depth, packed as parent node (high
+	 * half) and move (low half), or NONE.
+	 */
+	private AtomicLongArray[] pending;
+
+	/**
+	 * Per position index, in chunks: the node of the last path the position
+	 * was searched from, or -1.
+	 */
+	private int[][] searched;
+
+	/**
+	 * Positions given a pending path at the current depth, one array per task.
+	 */
+	private ConcurrentLinkedQueue<int[]> touched;
+
+	/**
+	 * Solved positions reached, packed like pending paths, one array per task.
+	 */
+	private ConcurrentLinkedQueue<long[]> found;
+
+	/**
+	 * Boulders of the board being solved, used to decode solutions.
+	 */
+	private ArrayList<Boulder> boulders;
+
+	/**
+	 * Lane offset of each boulder when the search started.
+	 */
+	private int[] startOffsets;
+
+	/**
+	 * Moves made on the board before the search started, which begin every
+	 * solution.
+	 */
+	private ArrayList<Move> prefix;
+
+	/**
+	 * All solutions found in the last search.
+	 */
+	private ArrayList<ArrayList<Move>> solutions = new ArrayList<ArrayList<Move>>();
+
+	/**
+	 * Constructs a solver with the given maximum number of moves that uses the
+	 * common fork/join pool.
+	 *
+	 * @param givenMaxMoves maximum number of moves
+	 */
+	public ParallelSolver(int givenMaxMoves) {
+		this(givenMaxMoves, ForkJoinPool.commonPool(), 1 << 16);
+	}
+
+	/**
+	 * Constructs a solver with the given maximum number of moves, pool and
+	 * initial visited table capacity. The table grows as needed.
+	 *
+	 * @param givenMaxMoves maximum number of moves
+	 * @param pool          the pool to run search tasks on
+	 * @param capacity      expected number of distinct positions visited
+	 */
+	public ParallelSolver(int givenMaxMoves, ForkJoinPool pool, int capacity) {
+		maxMoves = givenMaxMoves;
+		this.pool = pool;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Returns all solutions found in the search, the same as
+	 * Solver.getSolutions() would return after a search of the same board.
+	 * Each solution is a list of moves of the boulders of the board that was
+	 * passed to solve().
+	 *
+	 * @return list of all solutions
+	 */
+	public ArrayList<ArrayList<Move>> getSolutions() {
+		return solutions;
+	}
+
+	/**
+	 * Searches for solutions to the given board on the pool and waits for the
+	 * search to finish. The given board is not modified.
+	 *
+	 * @param board any instance of Board
+	 */
+	public void solve(Board board) {
+		codec = new StateCodec(board);
+		seen = new ConcurrentStateTable(codec.getWords(), capacity);
+		branching = 2 * board.getBoulders().size();
+		boulders = board.getBoulders();
+		startOffsets = MoveCodec.offsets(boulders);
+		prefix = board.getMoveHistory();
+		solutions = new ArrayList<ArrayList<Move>>();
+		int startMoves = board.getMoveCount();
+		Position start = board.getPosition();
+		if (startMoves > maxMoves) {
+			return;
+		}
+		if (start.isGameOver()) {
+			solutions.add(new ArrayList<Move>(prefix));
+			return;
+		}
+
+		// The root is searched first and from then on prunes every path back to the start
+		parents = new int[] { -1 };
+		moves = new int[] { -1 };
+		depths = new int[] { 0 };
+		nodeCount = 1;
+		pending = new AtomicLongArray[0];
+		searched = new int[0][];
+		long[] key = codec.newKey();
+		codec.encode(start.offsets, key);
+		reserve(1);
+		searched[0][seen.insert(key)] = 0;
+		frontierStart = 0;
+		frontier = new Position[] { start };
+
+		ArrayList<long[]> goals = new ArrayList<long[]>();
+		for (int depth = 1; startMoves + depth <= maxMoves && frontier.length > 0; ++depth) {
+			// Offer every child of the frontier to its position, then search the winners
+			reserve(seen.size() + (long) frontier.length * branching);
+			touched = new ConcurrentLinkedQueue<int[]>();
+			found = new ConcurrentLinkedQueue<long[]>();
+			pool.invoke(new ExpandTask(0, frontier.length));
+			goals.addAll(found);
+
+			int[] winners = concat(touched);
+			if (nodeCount + winners.length > parents.length) {
+				int length = Math.max(parents.length * 2, nodeCount + winners.length);
+				parents = Arrays.copyOf(parents, length);
+				moves = Arrays.copyOf(moves, length);
+				depths = Arrays.copyOf(depths, length);
+			}
+			Position[] next = new Position[winners.length];
+			pool.invoke(new SearchTask(winners, next, 0, winners.length));
+			frontierStart = nodeCount;
+			nodeCount += winners.length;
+			frontier = next;
+		}
+
+		// Solver finds solutions in move order
+		int total = 0;
+		for (long[] part : goals) {
+			total += part.length;
+		}
+		Long[] order = new Long[total];
+		int at = 0;
+		for (long[] part : goals) {
+			for (long goal : part) {
+				order[at++] = goal;
+			}
+		}
+		Arrays.sort(order, new MoveOrder());
+		for (long goal : order) {
+			solutions.add(translate((int) (goal >>> 32), (int) goal));
+		}
+
+		parents = null;
+		moves = null;
+		depths = null;
+		frontier = null;
+		pending = null;
+		searched = null;
+		touched = null;
+		found = null;
+		seen = null;
+	}
+
+	/**
+	 * Expands a range of the frontier, offering each child position the path
+	 * that reached it and collecting the solved ones.
+	 */
+	private class ExpandTask extends RecursiveAction {
+		/**
+		 * Suppress compiler warning.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * First frontier index of the range.
+		 */
+		private transient int from;
+
+		/**
+		 * Frontier index just past the range.
+		 */
+		private transient int to;
+
+		/**
+		 * Constructs a task for frontier indexes from (inclusive) to to
+		 * (exclusive).
+		 */
+		ExpandTask(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > GRAIN) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new ExpandTask(from, mid), new ExpandTask(mid, to));
+				return;
+			}
+			long[] key = codec.newKey();
+			int[] legal = new int[branching];
+			int[] offered = new int[GRAIN * branching];
+			int offeredCount = 0;
+			long[] goals = new long[4];
+			int goalCount = 0;
+			for (int f = from; f < to; ++f) {
+				int node = frontierStart + f;
+				int count = frontier[f].getAllPossibleMoves(legal);
+				for (int c = 0; c < count; ++c) {
+					Position next = frontier[f].apply(legal[c]);
+					long path = ((long) node << 32) | legal[c];
+					if (next.isGameOver()) {
+						if (goalCount == goals.length) {
+							goals = Arrays.copyOf(goals, goalCount * 2);
+						}
+						goals[goalCount++] = path;
+						continue;
+					}
+					codec.encode(next.offsets, key);
+					int index = seen.insert(key);
+					if (index < 0) {
+						index = -index - 1;
+					}
+					if (offer(index, path)) {
+						offered[offeredCount++] = index;
+					}
+				}
+			}
+			touched.add(Arrays.copyOf(offered, offeredCount));
+			if (goalCount > 0) {
+				found.add(Arrays.copyOf(goals, goalCount));
+			}
+		}
+	}
+
+	/**
+	 * Adds a node to the search tree for each position of a range of winners,
+	 * from the path pending for it, and works out its position for the next
+	 * frontier.
+	 */
+	private class SearchTask extends RecursiveAction {
+		/**
+		 * Suppress compiler warning.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Position indexes with a pending path; the i-th becomes node
+		 * nodeCount + i.
+		 */
+		private transient int[] winners;
+
+		/**
+		 * Receives the position of each new node.
+		 */
+		private transient Position[] next;
+
+		/**
+		 * First index into winners of the range.
+		 */
+		private transient int from;
+
+		/**
+		 * Index into winners just past the range.
+		 */
+		private transient int to;
+
+		/**
+		 * Constructs a task for winners from (inclusive) to to (exclusive).
+		 */
+		SearchTask(int[] winners, Position[] next, int from, int to) {
+			this.winners = winners;
+			this.next = next;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > GRAIN) {
+				int mid = (from + to) >>> 1;
+				invokeAll(new SearchTask(winners, next, from, mid), new SearchTask(winners, next, mid, to));
+				return;
+			}
+			for (int i = from; i < to; ++i) {
+				int index = winners[i];
+				long path = pending[index >>> CHUNK_BITS].getAndSet(index & ((1 << CHUNK_BITS) - 1), NONE);
+				int parent = (int) (path >>> 32);
+				int node = nodeCount + i;
+				parents[node] = parent;
+				moves[node] = (int) path;
+				depths[node] = depths[parent] + 1;
+				searched[index >>> CHUNK_BITS][index & ((1 << CHUNK_BITS) - 1)] = node;
+				next[i] = frontier[parent - frontierStart].apply((int) path);
+			}
+		}
+	}
+
+	/**
+	 * Orders packed paths (parent node and move) as Solver's depth first search
+	 * reaches them.
+	 */
+	private class MoveOrder implements Comparator<Long> {
+		@Override
+		public int compare(Long a, Long b) {
+			if (a.longValue() == b.longValue()) {
+				return 0;
+			}
+			return precedes((int) (a >>> 32), a.intValue(), (int) (b >>> 32), b.intValue()) ? -1 : 1;
+		}
+	}
+
+	/**
+	 * Makes the given path the position's pending path if it comes first by
+	 * move order among the paths reaching it at this depth, and before the
+	 * path the position was last searched from. Returns true if the position
+	 * had no pending path before, so that the caller lists it exactly once.
+	 */
+	private boolean offer(int index, long path) {
+		int parent = (int) (path >>> 32);
+		int move = (int) path;
+		int last = searched[index >>> CHUNK_BITS][index & ((1 << CHUNK_BITS) - 1)];
+		if (last >= 0 && !precedes(parent, move, parents[last], moves[last])) {
+			return false;
+		}
+		AtomicLongArray chunk = pending[index >>> CHUNK_BITS];
+		int slot = index & ((1 << CHUNK_BITS) - 1);
+		while (true) {
+			long current = chunk.get(slot);
+			if (current == NONE) {
+				if (chunk.compareAndSet(slot, NONE, path)) {
+					return true;
+				}
+			}
+			else if (!precedes(parent, move, (int) (current >>> 32), (int) current)) {
+				return false;
+			}
+			else if (chunk.compareAndSet(slot, current, path)) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Returns true if the path to the child of node a by move am comes before
+	 * the path to the child of node b by move bm in Solver's depth first order:
+	 * it is a prefix of the other, or at the first move where they differ its
+	 * move is listed first by getAllPossibleMoves(). A node of -1 with a move of
+	 * -1 stands for the empty path to the root.
+	 */
+	private boolean precedes(int a, int am, int b, int bm) {
+		int da = a < 0 ? 0 : depths[a] + 1;
+		int db = b < 0 ? 0 : depths[b] + 1;
+
+		// Walk the deeper path up to the depth of the other
+		int la = da;
+		int lb = db;
+		while (la > lb) {
+			am = moves[a];
+			a = parents[a];
+			la -= 1;
+		}
+		while (lb > la) {
+			bm = moves[b];
+			b = parents[b];
+			lb -= 1;
+		}
+		if (a == b && am == bm) {
+			return da < db;
+		}
+
+		// Walk both up to the node where they branch; moves are listed in increasing order
+		while (a != b) {
+			am = moves[a];
+			a = parents[a];
+			bm = moves[b];
+			b = parents[b];
+		}
+		return am < bm;
+	}
+
+	/**
+	 * Makes sure the per position chunks cover every index below the given
+	 * count, with no pending path and not yet searched.
+	 */
+	private void reserve(long count) {
+		int chunks = (int) ((count + (1 << CHUNK_BITS) - 1) >>> CHUNK_BITS);
+		if (chunks <= pending.length) {
+			return;
+		}
+		int have = pending.length;
+		pending = Arrays.copyOf(pending, chunks);
+		searched = Arrays.copyOf(searched, chunks);
+		for (int i = have; i < chunks; ++i) {
+			pending[i] = new AtomicLongArray(1 << CHUNK_BITS);
+			searched[i] = new int[1 << CHUNK_BITS];
+			for (int j = 0; j < 1 << CHUNK_BITS; ++j) {
+				pending[i].set(j, NONE);
+			}
+			Arrays.fill(searched[i], -1);
+		}
+	}
+
+	/**
+	 * Returns the arrays of the queue joined into one.
+	 */
+	private static int[] concat(ConcurrentLinkedQueue<int[]> parts) {
+		int length = 0;
+		for (int[] part : parts) {
+			length += part.length;
+		}
+		int[] all = new int[length];
+		int at = 0;
+		for (int[] part : parts) {
+			System.arraycopy(part, 0, all, at, part.length);
+			at += part.length;
+		}
+		return all;
+	}
+
+	/**
+	 * Returns the moves of the solution ending with the given move from the
+	 * given node, in terms of the boulders of the board being solved and
+	 * starting with the moves made before the search.
+	 */
+	private ArrayList<Move> translate(int node, int move) {
+		int[] path = new int[depths[node] + 1];
+		path[path.length - 1] = move;
+		for (int d = path.length - 2; d >= 0; --d) {
+			path[d] = moves[node];
+			node = parents[node];
+		}
+		ArrayList<Move> result = new ArrayList<Move>(prefix);
+		result.addAll(MoveCodec.toMoves(path, path.length, boulders, startOffsets.clone()));
+		return result;
+	}
+}
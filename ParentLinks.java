@@ -0,0 +1,103 @@
+package hw3;
+
+import java.util.Arrays;
+
+/**
+ * Parent pointers of the positions stored in a StateTable, used by the
+ * solvers that expand each position once. For every state index it keeps the
+ * index of the position it was reached from and the move that reached it,
+ * encoded by MoveCodec and stored as a short.
+ * @Author Ethen Santana
+ */
+class ParentLinks {
+	/**
+	 * Index of the position each position was reached from, by state index.
+	 */
+	private int[] parents = new int[1024];
+
+	/**
+	 * Encoded move that reached each position, by state index.
+	 */
+	private short[] moves = new short[1024];
+
+	/**
+	 * Records that the position at index was reached from parent by the given
+	 * move, replacing any earlier link.
+	 *
+	 * @param index  state index of the position
+	 * @param parent state index of the previous position
+	 * @param move   encoded move
+	 */
+	void record(int index, int parent, int move) {
+		if (index >= parents.length) {
+			int length = Math.max(parents.length * 2, index + 1);
+			parents = Arrays.copyOf(parents, length);
+			moves = Arrays.copyOf(moves, length);
+		}
+		parents[index] = parent;
+		moves[index] = (short) move;
+	}
+
+	/**
+	 * Returns the state index of the position the given one was reached from.
+	 *
+	 * @param index state index of the position
+	 * @return state index of the parent
+	 */
+	int getParent(int index) {
+		return parents[index];
+	}
+
+	/**
+	 * Returns the encoded move that reached the given position.
+	 *
+	 * @param index state index of the position
+	 * @return the encoded move
+	 */
+	int getMove(int index) {
+		return moves[index];
+	}
+
+	/**
+	 * Follows parent links from the given position back to root and returns
+	 * the encoded moves in playing order (see MoveCodec).
+	 *
+	 * @param index state index of the last position
+	 * @param root  state index of the start position
+	 * @return the encoded moves from root to index
+	 */
+	int[] path(int index, int root) {
+		int length = 0;
+		for (int i = index; i != root; i = parents[i]) {
+			length += 1;
+		}
+		int[] path = new int[length];
+		while (index != root) {
+			path[--length] = moves[index];
+			index = parents[index];
+		}
+		return path;
+	}
+
+	/**
+	 * Follows parent links from the given position until a position recorded
+	 * with a negative parent, for links built backwards from goal positions.
+	 * Each link records the move from the parent to the child, so the moves
+	 * are returned reversed, in playing order from index towards the goal.
+	 *
+	 * @param index state index of the first position
+	 * @return the encoded moves from index to a goal position
+	 */
+	int[] unwind(int index) {
+		int length = 0;
+		for (int i = index; parents[i] >= 0; i = parents[i]) {
+			length += 1;
+		}
+		int[] path = new int[length];
+		for (int i = 0; i < length; ++i) {
+			path[i] = MoveCodec.reverse(moves[index]);
+			index = parents[index];
+		}
+		return path;
+	}
+}
@@ -0,0 +1,392 @@
+package hw3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import api.Direction;
+import api.Orientation;
+
+/**
+ * An immutable snapshot of the position of every boulder on a board. A
+ * position is just the lane offset of each boulder (see StateCodec) plus a
+ * bitmap of the covered cells, over a read-only layout of the grid and the
+ * boulder lanes that is shared by every position of the same board.
+ * <p>
+ * Applying a move returns a new position that copies the two small arrays and
+ * changes one offset and two bits, leaving the original as it was. Positions
+ * never change after they are created, so any number of threads can read and
+ * explore them without locks and without copying a Board. Moves are encoded by
+ * MoveCodec, with the same boulder indexes and in the same order as the Board
+ * they were taken from.
+ * @Author Ethen Santana
+ */
+public final class Position {
+	/**
+	 * The parts of a board that never change as boulders move: the type of each
+	 * cell and the lane and length of each boulder.
+	 */
+	static final class Layout {
+		/**
+		 * Number of rows of the grid.
+		 */
+		final int rows;
+
+		/**
+		 * Number of columns of the grid.
+		 */
+		final int cols;
+
+		/**
+		 * True for each cell a boulder can be placed over (ground or exit),
+		 * indexed by (row * cols + column).
+		 */
+		final boolean[] open;
+
+		/**
+		 * True for each exit cell, indexed by (row * cols + column).
+		 */
+		final boolean[] exit;
+
+		/**
+		 * Orientation of each boulder, in the order of the board's boulder list.
+		 */
+		final boolean[] horizontal;
+
+		/**
+		 * The fixed coordinate of each boulder's lane: its row if it is
+		 * horizontal, its column if it is vertical.
+		 */
+		final int[] lane;
+
+		/**
+		 * Length of each boulder.
+		 */
+		final int[] length;
+
+		/**
+		 * Records the layout of the given board.
+		 *
+		 * @param board the board
+		 */
+		Layout(Board board) {
+			rows = board.getRowSize();
+			cols = board.getColSize();
+			open = new boolean[rows * cols];
+			exit = new boolean[rows * cols];
+			for (int row = 0; row < rows; ++row) {
+				for (int col = 0; col < cols; ++col) {
+					exit[row * cols + col] = board.getCellAt(row, col).isExit();
+					open[row * cols + col] = exit[row * cols + col] || board.getCellAt(row, col).isGround();
+				}
+			}
+
+			ArrayList<Boulder> boulders = board.getBoulders();
+			horizontal = new boolean[boulders.size()];
+			lane = new int[boulders.size()];
+			length = new int[boulders.size()];
+			for (int i = 0; i < boulders.size(); ++i) {
+				Boulder b = boulders.get(i);
+				horizontal[i] = b.getOrientation() == Orientation.HORIZONTAL;
+				lane[i] = horizontal[i] ? b.getFirstRow() : b.getFirstCol();
+				length[i] = b.getLength();
+			}
+		}
+
+		/**
+		 * Returns true if the other layout has the same grid and boulder lanes,
+		 * as is the case for every board built from the same description.
+		 *
+		 * @param other the layout to compare with
+		 * @return true if positions of the two layouts are interchangeable
+		 */
+		boolean matches(Layout other) {
+			return this == other || (rows == other.rows && cols == other.cols && Arrays.equals(open, other.open)
+					&& Arrays.equals(exit, other.exit) && Arrays.equals(horizontal, other.horizontal)
+					&& Arrays.equals(lane, other.lane) && Arrays.equals(length, other.length));
+		}
+	}
+
+	/**
+	 * The shared layout.
+	 */
+	private final Layout layout;
+
+	/**
+	 * Lane offset of each boulder: its first column if it is horizontal, its
+	 * first row if it is vertical.
+	 */
+	final int[] offsets;
+
+	/**
+	 * One bit per cell, set if a boulder covers the cell, indexed by (row *
+	 * cols + column).
+	 */
+	private final long[] covered;
+
+	/**
+	 * Number of exit cells covered by a boulder.
+	 */
+	private final int exitsCovered;
+
+	/**
+	 * Constructs the position with the given offsets, working out which cells
+	 * are covered.
+	 *
+	 * @param layout  the shared layout
+	 * @param offsets lane offset of each boulder, not copied
+	 */
+	Position(Layout layout, int[] offsets) {
+		this.layout = layout;
+		this.offsets = offsets;
+		covered = new long[(layout.rows * layout.cols + 63) >>> 6];
+		int exits = 0;
+		for (int i = 0; i < offsets.length; ++i) {
+			for (int k = 0; k < layout.length[i]; ++k) {
+				int cell = cellOf(i, k);
+				covered[cell >>> 6] |= 1L << cell;
+				if (layout.exit[cell]) {
+					exits += 1;
+				}
+			}
+		}
+		exitsCovered = exits;
+	}
+
+	/**
+	 * Constructs a position from the arrays of another one after a move.
+	 */
+	private Position(Layout layout, int[] offsets, long[] covered, int exitsCovered) {
+		this.layout = layout;
+		this.offsets = offsets;
+		this.covered = covered;
+		this.exitsCovered = exitsCovered;
+	}
+
+	/**
+	 * Returns the number of rows of the grid.
+	 *
+	 * @return number of rows
+	 */
+	public int getRowSize() {
+		return layout.rows;
+	}
+
+	/**
+	 * Returns the number of columns of the grid.
+	 *
+	 * @return number of columns
+	 */
+	public int getColSize() {
+		return layout.cols;
+	}
+
+	/**
+	 * Returns the number of boulders.
+	 *
+	 * @return number of boulders
+	 */
+	public int getBoulderCount() {
+		return offsets.length;
+	}
+
+	/**
+	 * Returns the row of the first (upper-most) cell of a boulder.
+	 *
+	 * @param boulder index of the boulder in the board's boulder list
+	 * @return the row
+	 */
+	public int getFirstRow(int boulder) {
+		return layout.horizontal[boulder] ? layout.lane[boulder] : offsets[boulder];
+	}
+
+	/**
+	 * Returns the column of the first (left-most) cell of a boulder.
+	 *
+	 * @param boulder index of the boulder in the board's boulder list
+	 * @return the column
+	 */
+	public int getFirstCol(int boulder) {
+		return layout.horizontal[boulder] ? offsets[boulder] : layout.lane[boulder];
+	}
+
+	/**
+	 * Returns the lane offset of every boulder, as accepted by
+	 * Board.setPosition().
+	 *
+	 * @return a copy of the offsets
+	 */
+	public int[] getOffsets() {
+		return offsets.clone();
+	}
+
+	/**
+	 * Returns true if the cell at the given row and column is inside the grid,
+	 * is ground or an exit, and is not covered by a boulder.
+	 *
+	 * @param row row of the cell
+	 * @param col column of the cell
+	 * @return true if a boulder could move onto the cell
+	 */
+	public boolean isAvailable(int row, int col) {
+		if (row < 0 || row >= layout.rows || col < 0 || col >= layout.cols) {
+			return false;
+		}
+		int cell = row * layout.cols + col;
+		return layout.open[cell] && (covered[cell >>> 6] & (1L << cell)) == 0;
+	}
+
+	/**
+	 * Returns true if a boulder covers an exit.
+	 *
+	 * @return true if the puzzle is solved in this position
+	 */
+	public boolean isGameOver() {
+		return exitsCovered > 0;
+	}
+
+	/**
+	 * Writes every legal move into the given buffer, encoded by MoveCodec and
+	 * in the same order as Board.getAllPossibleMoves(), and returns how many
+	 * there are. A buffer of twice the number of boulders is always big enough.
+	 *
+	 * @param moves receives the encoded moves, starting at index 0
+	 * @return the number of legal moves
+	 */
+	public int getAllPossibleMoves(int[] moves) {
+		int count = 0;
+		for (int i = 0; i < offsets.length; ++i) {
+			if (layout.horizontal[i]) {
+				if (isAvailable(layout.lane[i], offsets[i] - 1)) {
+					moves[count++] = MoveCodec.encode(i, Direction.LEFT);
+				}
+				if (isAvailable(layout.lane[i], offsets[i] + layout.length[i])) {
+					moves[count++] = MoveCodec.encode(i, Direction.RIGHT);
+				}
+			}
+			else {
+				if (isAvailable(offsets[i] - 1, layout.lane[i])) {
+					moves[count++] = MoveCodec.encode(i, Direction.UP);
+				}
+				if (isAvailable(offsets[i] + layout.length[i], layout.lane[i])) {
+					moves[count++] = MoveCodec.encode(i, Direction.DOWN);
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Returns true if the given encoded move is legal here: the direction
+	 * matches its boulder's orientation and the cell it would move into is
+	 * available. Moves from solved positions are allowed, as in
+	 * Board.trySlide().
+	 *
+	 * @param move the encoded move
+	 * @return true if apply() would succeed
+	 */
+	public boolean canApply(int move) {
+		int i = MoveCodec.boulder(move);
+		if (i < 0 || i >= offsets.length) {
+			return false;
+		}
+		Direction dir = MoveCodec.direction(move);
+		if (layout.horizontal[i] != (dir == Direction.LEFT || dir == Direction.RIGHT)) {
+			return false;
+		}
+		int entered = MoveCodec.step(move) < 0 ? offsets[i] - 1 : offsets[i] + layout.length[i];
+		return layout.horizontal[i] ? isAvailable(layout.lane[i], entered) : isAvailable(entered, layout.lane[i]);
+	}
+
+	/**
+	 * Returns the position after the given encoded move. This position is not
+	 * changed.
+	 *
+	 * @param move the encoded move
+	 * @return the new position
+	 * @throws IllegalArgumentException if the move is not legal here
+	 */
+	public Position apply(int move) {
+		if (!canApply(move)) {
+			throw new IllegalArgumentException("illegal move " + MoveCodec.boulder(move) + ":"
+					+ MoveCodec.direction(move));
+		}
+		int i = MoveCodec.boulder(move);
+		int step = MoveCodec.step(move);
+
+		// The boulder leaves the cell at one end and enters the cell past the other
+		int left = step < 0 ? layout.length[i] - 1 : 0;
+		int entered = step < 0 ? -1 : layout.length[i];
+		int from = cellOf(i, left);
+		int to = cellOf(i, entered);
+		long[] cells = covered.clone();
+		cells[from >>> 6] &= ~(1L << from);
+		cells[to >>> 6] |= 1L << to;
+		int exits = exitsCovered - (layout.exit[from] ? 1 : 0) + (layout.exit[to] ? 1 : 0);
+
+		int[] moved = offsets.clone();
+		moved[i] += step;
+		return new Position(layout, moved, cells, exits);
+	}
+
+	/**
+	 * Returns true if this position's layout matches the given one.
+	 *
+	 * @param other layout to compare with
+	 * @return true if this position can be applied to boards of that layout
+	 */
+	boolean hasLayout(Layout other) {
+		return layout.matches(other);
+	}
+
+	/**
+	 * Returns the index of the k-th cell of a boulder in this position. k may
+	 * be -1 or the boulder's length for the cells just past either end.
+	 */
+	private int cellOf(int boulder, int k) {
+		if (layout.horizontal[boulder]) {
+			return layout.lane[boulder] * layout.cols + offsets[boulder] + k;
+		}
+		return (offsets[boulder] + k) * layout.cols + layout.lane[boulder];
+	}
+
+	/**
+	 * Positions are equal if their layouts match and every boulder is at the
+	 * same offset.
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof Position)) {
+			return false;
+		}
+		Position other = (Position) obj;
+		return Arrays.equals(offsets, other.offsets) && layout.matches(other.layout);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(offsets);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder buff = new StringBuilder();
+		for (int row = 0; row < layout.rows; ++row) {
+			if (row > 0) {
+				buff.append("\n");
+			}
+			for (int col = 0; col < layout.cols; ++col) {
+				int cell = row * layout.cols + col;
+				if ((covered[cell >>> 6] & (1L << cell)) != 0) {
+					buff.append('#');
+				}
+				else if (layout.exit[cell]) {
+					buff.append('e');
+				}
+				else {
+					buff.append(layout.open[cell] ? '.' : '*');
+				}
+			}
+		}
+		return buff.toString();
+	}
+}
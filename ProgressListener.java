@@ -0,0 +1,23 @@
+package hw3;
+
+import java.util.ArrayList;
+
+import api.Move;
+
+/**
+ * Receives periodic progress reports from a budgeted search. Reports are made
+ * on the searching thread, so implementations should return quickly.
+ * 
+ * @Author Ethen Santana
+ */
+public interface ProgressListener {
+	/**
+	 * Reports the progress of the search so far.
+	 * 
+	 * @param nodes   number of positions expanded
+	 * @param depth   number of moves made to reach the current position
+	 * @param visited number of distinct positions recorded
+	 * @param best    shortest solution found so far, or null if none
+	 */
+	void progress(long nodes, int depth, int visited, ArrayList<Move> best);
+}
@@ -0,0 +1,364 @@
+package api;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A puzzle file converted for random access: any puzzle can be read, or
+ * listed by its size, without parsing the ones before it.
+ * <p>
+ * The file starts with a header (magic number, puzzle count, and the offsets
+ * of the index and of the end of the cell data), followed by the cells of
+ * every puzzle, one byte per cell in row order, and ends with the index: one
+ * fixed-width entry per puzzle holding the offset of its cells, its number of
+ * rows and columns and a hash of its cells. Puzzles keep the indexes they have
+ * in the puzzle file, so an empty description is kept as an entry with no rows.
+ * <p>
+ * The constructor maps the index and the cell data into memory, so opening a
+ * library reads nothing but the header, and looking up a puzzle reads its
+ * index entry and its cells. The cell data is mapped in windows of up to one
+ * gigabyte, and build() never lets a puzzle cross from one window into the
+ * next.
+ */
+public class PuzzleLibrary implements Closeable {
+	/**
+	 * Identifies a puzzle library file.
+	 */
+	private static final long MAGIC = 0x4250504C49425259L;
+
+	/**
+	 * Size of the header in bytes: magic, puzzle count, index offset, data end.
+	 */
+	private static final int HEADER = 32;
+
+	/**
+	 * Size of an index entry in bytes: offset, rows, columns, hash.
+	 */
+	private static final int ENTRY = 16;
+
+	/**
+	 * Size of each mapped window of cell data.
+	 */
+	private static final int WINDOW = 1 << 30;
+
+	/**
+	 * Shared one character strings for the byte values.
+	 */
+	private static final String[] CELLS = new String[256];
+
+	static {
+		for (int c = 0; c < CELLS.length; ++c) {
+			CELLS[c] = String.valueOf((char) c);
+		}
+	}
+
+	/**
+	 * The open file.
+	 */
+	private FileChannel channel;
+
+	/**
+	 * Number of puzzles.
+	 */
+	private int count;
+
+	/**
+	 * The mapped index.
+	 */
+	private MappedByteBuffer index;
+
+	/**
+	 * The mapped cell data, window i covering the file from i * WINDOW.
+	 */
+	private MappedByteBuffer[] windows;
+
+	/**
+	 * Opens a puzzle library.
+	 *
+	 * @param file the library file
+	 * @throws IOException if the file cannot be read or is not a library
+	 */
+	public PuzzleLibrary(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			ByteBuffer header = ByteBuffer.allocate(HEADER);
+			while (header.hasRemaining() && channel.read(header) >= 0) {
+				// Keep reading until the header is complete or the file ends
+			}
+			header.flip();
+			if (header.remaining() < HEADER || header.getLong() != MAGIC) {
+				throw new IOException(file + " is not a puzzle library");
+			}
+			count = header.getInt();
+			header.getInt();
+			long indexOffset = header.getLong();
+			long dataEnd = header.getLong();
+			if (count < 0 || indexOffset + (long) count * ENTRY > channel.size() || dataEnd > indexOffset
+					|| (long) count * ENTRY > Integer.MAX_VALUE) {
+				throw new IOException(file + " is a damaged puzzle library");
+			}
+			index = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset, (long) count * ENTRY);
+			windows = new MappedByteBuffer[(int) ((dataEnd + WINDOW - 1) / WINDOW)];
+			for (int w = 0; w < windows.length; ++w) {
+				long start = (long) w * WINDOW;
+				windows[w] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW, dataEnd - start));
+			}
+		}
+		catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns true if the given file is a puzzle library rather than a text
+	 * puzzle file.
+	 *
+	 * @param file the file
+	 * @return true if the file starts like a library
+	 * @throws IOException if the file cannot be read
+	 */
+	public static boolean isLibrary(Path file) throws IOException {
+		try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer magic = ByteBuffer.allocate(8);
+			while (magic.hasRemaining() && in.read(magic) >= 0) {
+				// Keep reading until the magic number is complete or the file ends
+			}
+			return magic.position() == 8 && magic.getLong(0) == MAGIC;
+		}
+	}
+
+	/**
+	 * Returns the library file that goes with a text puzzle file, next to it
+	 * with ".lib" added to its name.
+	 *
+	 * @param puzzles the text puzzle file
+	 * @return the library file
+	 */
+	public static Path libraryFor(Path puzzles) {
+		return puzzles.resolveSibling(puzzles.getFileName() + ".lib");
+	}
+
+	/**
+	 * Converts a text puzzle file into a library, reading the puzzles one at a
+	 * time. Every cell must be a single character with a code below 256, and
+	 * every puzzle must be rectangular. The library is written to a temporary
+	 * file and moved into place when it is complete, so a failed build never
+	 * leaves a partial library behind.
+	 *
+	 * @param puzzles the text puzzle file
+	 * @param library the library file to write, replaced if it exists
+	 * @return the number of puzzles, including empty descriptions
+	 * @throws IOException if a file cannot be read or written, or a puzzle
+	 *                     cannot be stored
+	 */
+	public static int build(Path puzzles, Path library) throws IOException {
+		Path dir = library.toAbsolutePath().getParent();
+		Path partial = Files.createTempFile(dir, "library", ".tmp");
+		Path entries = Files.createTempFile(dir, "index", ".tmp");
+		try {
+			int count = write(puzzles, partial, entries);
+			Files.move(partial, library, StandardCopyOption.REPLACE_EXISTING);
+			return count;
+		}
+		finally {
+			Files.deleteIfExists(partial);
+			Files.deleteIfExists(entries);
+		}
+	}
+
+	/**
+	 * Writes the library of a text puzzle file, building its index in a
+	 * separate file that is then appended to the cells.
+	 */
+	private static int write(Path puzzles, Path library, Path entries) throws IOException {
+		try (BoardDescriptionReader reader = new BoardDescriptionReader(puzzles);
+				FileChannel out = FileChannel.open(library, StandardOpenOption.WRITE,
+						StandardOpenOption.TRUNCATE_EXISTING);
+				DataOutputStream entryOut = new DataOutputStream(
+						new BufferedOutputStream(Files.newOutputStream(entries), 1 << 16))) {
+			// The cells follow a header that is filled in at the end, when the counts are known
+			OutputStream stream = Channels.newOutputStream(out);
+			DataOutputStream data = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+			data.write(new byte[HEADER]);
+			long offset = HEADER;
+			int puzzle = 0;
+			char[][] grid = reader.nextGrid();
+			while (grid != null) {
+				int rows = grid.length;
+				int cols = rows == 0 ? 0 : grid[0].length;
+				int size = rows * cols;
+				if (rows > 0xFFFF || cols > 0xFFFF || (long) rows * cols > WINDOW) {
+					throw new IOException("puzzle " + puzzle + " is too large");
+				}
+
+				// Start the next window rather than split a puzzle between two
+				if (size > 0 && offset / WINDOW != (offset + size - 1) / WINDOW) {
+					byte[] zeros = new byte[1 << 16];
+					long pad = WINDOW - offset % WINDOW;
+					for (long done = 0; done < pad; done += zeros.length) {
+						data.write(zeros, 0, (int) Math.min(zeros.length, pad - done));
+					}
+					offset += pad;
+				}
+				int hash = 0x811C9DC5;
+				for (char[] row : grid) {
+					if (row.length != cols) {
+						throw new IOException("puzzle " + puzzle + " is not rectangular");
+					}
+					for (char c : row) {
+						if (c >= CELLS.length) {
+							throw new IOException("puzzle " + puzzle + " has a cell that is not a single byte");
+						}
+						data.write(c);
+						hash = (hash ^ c) * 0x01000193;
+					}
+				}
+				entryOut.writeLong(offset);
+				entryOut.writeShort(rows);
+				entryOut.writeShort(cols);
+				entryOut.writeInt(hash);
+				offset += size;
+				puzzle += 1;
+				grid = reader.nextGrid();
+			}
+			data.flush();
+			entryOut.flush();
+
+			// Append the index and fill in the header
+			long dataEnd = offset;
+			try (FileChannel in = FileChannel.open(entries, StandardOpenOption.READ)) {
+				long copied = 0;
+				while (copied < in.size()) {
+					copied += in.transferTo(copied, in.size() - copied, out.position(dataEnd + copied));
+				}
+			}
+			ByteBuffer header = ByteBuffer.allocate(HEADER);
+			header.putLong(MAGIC).putInt(puzzle).putInt(0).putLong(dataEnd).putLong(dataEnd).flip();
+			while (header.hasRemaining()) {
+				out.write(header, header.position());
+			}
+			out.force(false);
+			return puzzle;
+		}
+	}
+
+	/**
+	 * Returns the number of puzzles, including empty descriptions.
+	 *
+	 * @return number of puzzles
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Returns the number of rows of a puzzle.
+	 *
+	 * @param puzzle index of the puzzle in its file
+	 * @return number of rows, 0 for an empty description
+	 */
+	public int getRows(int puzzle) {
+		return index.getShort(entry(puzzle) + 8) & 0xFFFF;
+	}
+
+	/**
+	 * Returns the number of columns of a puzzle.
+	 *
+	 * @param puzzle index of the puzzle in its file
+	 * @return number of columns, 0 for an empty description
+	 */
+	public int getCols(int puzzle) {
+		return index.getShort(entry(puzzle) + 10) & 0xFFFF;
+	}
+
+	/**
+	 * Returns the FNV-1a hash of a puzzle's cells, in row order. Equal puzzles
+	 * have equal hashes, so duplicates can be found from the index alone.
+	 *
+	 * @param puzzle index of the puzzle in its file
+	 * @return the hash
+	 */
+	public int getHash(int puzzle) {
+		return index.getInt(entry(puzzle) + 12);
+	}
+
+	/**
+	 * Returns a puzzle as a grid of characters.
+	 *
+	 * @param puzzle index of the puzzle in its file
+	 * @return the description, empty for an empty description
+	 */
+	public char[][] getGrid(int puzzle) {
+		byte[] cells = cells(puzzle);
+		int rows = getRows(puzzle);
+		int cols = getCols(puzzle);
+		char[][] grid = new char[rows][cols];
+		for (int row = 0; row < rows; ++row) {
+			for (int col = 0; col < cols; ++col) {
+				grid[row][col] = (char) (cells[row * cols + col] & 0xFF);
+			}
+		}
+		return grid;
+	}
+
+	/**
+	 * Returns a puzzle as strings, the same description a text puzzle file
+	 * gives for it. Cells share cached one character strings.
+	 *
+	 * @param puzzle index of the puzzle in its file
+	 * @return the description, empty for an empty description
+	 */
+	public String[][] getDescription(int puzzle) {
+		byte[] cells = cells(puzzle);
+		int rows = getRows(puzzle);
+		int cols = getCols(puzzle);
+		String[][] desc = new String[rows][cols];
+		for (int row = 0; row < rows; ++row) {
+			for (int col = 0; col < cols; ++col) {
+				desc[row][col] = CELLS[cells[row * cols + col] & 0xFF];
+			}
+		}
+		return desc;
+	}
+
+	/**
+	 * Returns the position of a puzzle's index entry.
+	 *
+	 * @throws IndexOutOfBoundsException if there is no such puzzle
+	 */
+	private int entry(int puzzle) {
+		if (puzzle < 0 || puzzle >= count) {
+			throw new IndexOutOfBoundsException("puzzle " + puzzle + " of " + count);
+		}
+		return puzzle * ENTRY;
+	}
+
+	/**
+	 * Returns the cells of a puzzle in row order.
+	 */
+	private byte[] cells(int puzzle) {
+		long offset = index.getLong(entry(puzzle));
+		byte[] cells = new byte[getRows(puzzle) * getCols(puzzle)];
+		if (cells.length > 0) {
+			windows[(int) (offset / WINDOW)].get((int) (offset % WINDOW), cells);
+		}
+		return cells;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
@@ -0,0 +1,93 @@
+package hw3;
+
+/**
+ * Bounds on the resources a search may use. A limit of zero means no limit.
+ * The deadline is measured from the start of each search.
+ * 
+ * @Author Ethen Santana
+ */
+public class SearchLimits {
+	/**
+	 * Maximum wall-clock time of a search in milliseconds.
+	 */
+	private long timeoutMillis;
+
+	/**
+	 * Maximum number of positions expanded.
+	 */
+	private long maxNodes;
+
+	/**
+	 * Maximum estimated memory of the visited table in bytes.
+	 */
+	private long maxMemoryBytes;
+
+	/**
+	 * Time between progress reports in milliseconds.
+	 */
+	private long progressMillis = 1000;
+
+	/**
+	 * Constructs limits that do not bound the search.
+	 */
+	public SearchLimits() {
+	}
+
+	/**
+	 * Constructs limits with the given deadline, node budget and memory budget.
+	 * 
+	 * @param timeoutMillis  maximum time in milliseconds, or 0
+	 * @param maxNodes       maximum positions expanded, or 0
+	 * @param maxMemoryBytes maximum visited table memory in bytes, or 0
+	 */
+	public SearchLimits(long timeoutMillis, long maxNodes, long maxMemoryBytes) {
+		this.timeoutMillis = timeoutMillis;
+		this.maxNodes = maxNodes;
+		this.maxMemoryBytes = maxMemoryBytes;
+	}
+
+	/**
+	 * Gets the maximum wall-clock time of a search.
+	 * 
+	 * @return time in milliseconds, or 0 for no limit
+	 */
+	public long getTimeoutMillis() {
+		return timeoutMillis;
+	}
+
+	/**
+	 * Gets the maximum number of positions expanded.
+	 * 
+	 * @return node budget, or 0 for no limit
+	 */
+	public long getMaxNodes() {
+		return maxNodes;
+	}
+
+	/**
+	 * Gets the maximum estimated memory of the visited table.
+	 * 
+	 * @return memory in bytes, or 0 for no limit
+	 */
+	public long getMaxMemoryBytes() {
+		return maxMemoryBytes;
+	}
+
+	/**
+	 * Gets the time between progress reports.
+	 * 
+	 * @return time in milliseconds
+	 */
+	public long getProgressMillis() {
+		return progressMillis;
+	}
+
+	/**
+	 * Sets the time between progress reports.
+	 * 
+	 * @param progressMillis time in milliseconds
+	 */
+	public void setProgressMillis(long progressMillis) {
+		this.progressMillis = progressMillis;
+	}
+}
@@ -0,0 +1,224 @@
+package hw3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import api.Move;
+
+/**
+ * Lazily runs the same depth bounded search as Solver.solve(), yielding each
+ * solution as it is found. The search keeps an explicit stack of the moves
+ * still to try at each depth and only advances when the next solution is
+ * requested, so it pauses for as long as the consumer does and never holds
+ * more than one solution.
+ * <p>
+ * The board is used for the search while iterating and must not be changed by
+ * anyone else until the iterator is exhausted, at which point the board is back
+ * in the position it was given in.
+ * @Author Ethen Santana
+ */
+public class SolutionIterator implements Iterator<ArrayList<Move>> {
+	/**
+	 * The board being searched.
+	 */
+	private Board board;
+
+	/**
+	 * Maximum number of moves allowed in the search.
+	 */
+	private int maxMoves;
+
+	/**
+	 * Positions reached so far and the fewest moves they were reached in.
+	 */
+	private VisitedStates seen;
+
+	/**
+	 * Encodes boards into the keys of seen.
+	 */
+	private StateCodec codec;
+
+	/**
+	 * Scratch key reused for every visited board.
+	 */
+	private long[] key;
+
+	/**
+	 * Canonicalizes keys, or null to record positions as they are.
+	 */
+	private StateSymmetry symmetry;
+
+	/**
+	 * Legal moves of the position at each depth of the current path, encoded
+	 * by MoveCodec. Buffers are reused whenever the path comes back to a depth.
+	 */
+	private int[][] stack = new int[16][];
+
+	/**
+	 * Number of legal moves in each buffer of stack.
+	 */
+	private int[] counts = new int[16];
+
+	/**
+	 * Index of the next move to try at each depth of the current path.
+	 */
+	private int[] cursors = new int[16];
+
+	/**
+	 * Number of depths on the stack.
+	 */
+	private int size;
+
+	/**
+	 * True if the last move made led to a leaf that has not been undone yet.
+	 */
+	private boolean leafPending;
+
+	/**
+	 * The next solution to return, or null if it has not been searched for yet.
+	 */
+	private ArrayList<Move> next;
+
+	/**
+	 * Constructs an iterator over the solutions to the given board reachable
+	 * within maxMoves moves, recording visited positions in a new StateTable.
+	 *
+	 * @param board    the board to search
+	 * @param maxMoves maximum number of moves
+	 */
+	public SolutionIterator(Board board, int maxMoves) {
+		this(board, maxMoves, null);
+	}
+
+	/**
+	 * Constructs an iterator over the solutions to the given board reachable
+	 * within maxMoves moves, recording visited positions in the given table.
+	 *
+	 * @param board    the board to search
+	 * @param maxMoves maximum number of moves
+	 * @param table    the visited position table, emptied first, or null for a
+	 *                 new StateTable
+	 */
+	public SolutionIterator(Board board, int maxMoves, VisitedStates table) {
+		this(board, maxMoves, table, false);
+	}
+
+	/**
+	 * Constructs an iterator over the solutions to the given board reachable
+	 * within maxMoves moves, recording visited positions in the given table and
+	 * optionally treating positions that are equivalent for solving as one (see
+	 * Solver.setSymmetryReduction()).
+	 *
+	 * @param board          the board to search
+	 * @param maxMoves       maximum number of moves
+	 * @param table          the visited position table, emptied first, or null
+	 *                       for a new StateTable
+	 * @param reduceSymmetry true to canonicalize positions before the visited
+	 *                       check
+	 */
+	public SolutionIterator(Board board, int maxMoves, VisitedStates table, boolean reduceSymmetry) {
+		this.board = board;
+		this.maxMoves = maxMoves;
+		codec = new StateCodec(board);
+		key = codec.newKey();
+		if (table != null) {
+			Solver.startSearch(table);
+			seen = table;
+		}
+		else {
+			seen = new StateTable(codec.getWords());
+		}
+		symmetry = Solver.symmetryFor(board, codec, reduceSymmetry);
+		next = enter();
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (next == null) {
+			next = advance();
+		}
+		return next != null;
+	}
+
+	@Override
+	public ArrayList<Move> next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		ArrayList<Move> solution = next;
+		next = null;
+		return solution;
+	}
+
+	/**
+	 * Continues the search until the next solution, returning null once the
+	 * whole search space has been searched.
+	 */
+	private ArrayList<Move> advance() {
+		while (size > 0) {
+			if (leafPending) {
+				board.undoMove();
+				leafPending = false;
+			}
+			int depth = size - 1;
+			if (cursors[depth] < counts[depth]) {
+				board.applyMove(stack[depth][cursors[depth]++]);
+				ArrayList<Move> solution = enter();
+				if (solution != null) {
+					return solution;
+				}
+			}
+			else {
+				// Every move from here has been tried, back up one level
+				size -= 1;
+				if (size > 0) {
+					board.undoMove();
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Handles arriving at the board's current position. Returns the solution if
+	 * the position is solved, otherwise pushes its moves on the stack if it
+	 * should be searched and returns null. Positions that are not pushed are
+	 * leaves and are undone by the next call to advance(). The start position
+	 * is never undone, since advance() stops as soon as the stack is empty.
+	 */
+	private ArrayList<Move> enter() {
+		int moves = board.getMoveCount();
+		leafPending = true;
+		if (moves > maxMoves) {
+			return null;
+		}
+		if (board.isGameOver()) {
+			return board.getMoveHistory();
+		}
+		if (symmetry != null) {
+			symmetry.encode(board, key);
+		}
+		else {
+			codec.encode(board, key);
+		}
+		if (!seen.visit(key, moves)) {
+			return null;
+		}
+
+		leafPending = false;
+		if (size == cursors.length) {
+			stack = Arrays.copyOf(stack, size * 2);
+			counts = Arrays.copyOf(counts, size * 2);
+			cursors = Arrays.copyOf(cursors, size * 2);
+		}
+		if (stack[size] == null) {
+			stack[size] = new int[2 * board.getBoulders().size()];
+		}
+		counts[size] = board.getAllPossibleMoves(stack[size]);
+		cursors[size] = 0;
+		size += 1;
+		return null;
+	}
+}
@@ -0,0 +1,194 @@
+package hw3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import api.Move;
+
+/**
+ * Stores the solutions found by a depth first search as a tree of encoded
+ * moves (see MoveCodec). Each node holds the index of its parent and the move
+ * that reached it, so solutions that share their first moves share those nodes
+ * and every further solution costs only the moves where it differs. The root is
+ * the position the search started from.
+ * <p>
+ * Solutions are only turned into Move objects when getSolution() is called.
+ * Moves made on the board before the search started are kept as a prefix that
+ * every decoded solution begins with.
+ * @Author Ethen Santana
+ */
+public class SolutionTree {
+	/**
+	 * Node index of the root, the position the search started from.
+	 */
+	public static final int ROOT = 0;
+
+	/**
+	 * Parent node of each node, -1 for the root.
+	 */
+	private int[] parents = new int[256];
+
+	/**
+	 * Encoded move that reached each node.
+	 */
+	private short[] moves = new short[256];
+
+	/**
+	 * Number of moves from the root to each node.
+	 */
+	private short[] depths = new short[256];
+
+	/**
+	 * Number of nodes in the tree.
+	 */
+	private int nodes;
+
+	/**
+	 * Node at the end of each solution, in the order they were added.
+	 */
+	private int[] leaves = new int[16];
+
+	/**
+	 * Number of solutions in the tree.
+	 */
+	private int size;
+
+	/**
+	 * Boulders of the board the moves were made on.
+	 */
+	private ArrayList<Boulder> boulders;
+
+	/**
+	 * Lane offset of each boulder at the root.
+	 */
+	private int[] startOffsets;
+
+	/**
+	 * Moves made before the root, at the start of every solution.
+	 */
+	private ArrayList<Move> prefix;
+
+	/**
+	 * Constructs an empty tree rooted at the current position of the given
+	 * board. The board's move history becomes the prefix of every solution.
+	 *
+	 * @param board the board being searched
+	 */
+	public SolutionTree(Board board) {
+		boulders = board.getBoulders();
+		startOffsets = MoveCodec.offsets(boulders);
+		prefix = new ArrayList<Move>(board.getMoveHistory());
+		parents[ROOT] = -1;
+		nodes = 1;
+	}
+
+	/**
+	 * Adds a node reached from parent by the given move.
+	 *
+	 * @param parent index of the parent node
+	 * @param move   encoded move
+	 * @return index of the new node
+	 */
+	public int add(int parent, int move) {
+		if (nodes == parents.length) {
+			parents = Arrays.copyOf(parents, nodes * 2);
+			moves = Arrays.copyOf(moves, nodes * 2);
+			depths = Arrays.copyOf(depths, nodes * 2);
+		}
+		parents[nodes] = parent;
+		moves[nodes] = (short) move;
+		depths[nodes] = (short) (depths[parent] + 1);
+		return nodes++;
+	}
+
+	/**
+	 * Records that the moves from the root to the given node solve the board.
+	 *
+	 * @param node index of the last node of the solution
+	 */
+	public void addSolution(int node) {
+		if (size == leaves.length) {
+			leaves = Arrays.copyOf(leaves, size * 2);
+		}
+		leaves[size++] = node;
+	}
+
+	/**
+	 * Returns the number of solutions in the tree.
+	 *
+	 * @return number of solutions
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of nodes in the tree, including the root.
+	 *
+	 * @return number of nodes
+	 */
+	public int getNodeCount() {
+		return nodes;
+	}
+
+	/**
+	 * Returns the last node of the i-th solution.
+	 *
+	 * @param i index of the solution
+	 * @return node index
+	 */
+	public int getLeaf(int i) {
+		return leaves[i];
+	}
+
+	/**
+	 * Returns the number of moves from the root to the given node, not counting
+	 * the prefix.
+	 *
+	 * @param node index of the node
+	 * @return number of moves
+	 */
+	public int getDepth(int node) {
+		return depths[node];
+	}
+
+	/**
+	 * Returns the encoded moves from the root to the given node, in playing
+	 * order.
+	 *
+	 * @param node index of the node
+	 * @return the encoded moves
+	 */
+	public int[] getPath(int node) {
+		int[] path = new int[depths[node]];
+		for (int i = path.length - 1; i >= 0; --i) {
+			path[i] = moves[node];
+			node = parents[node];
+		}
+		return path;
+	}
+
+	/**
+	 * Returns the moves of the i-th solution, starting with the prefix.
+	 *
+	 * @param i index of the solution
+	 * @return the moves in playing order
+	 */
+	public ArrayList<Move> getSolution(int i) {
+		return toMoves(leaves[i]);
+	}
+
+	/**
+	 * Returns the moves from the start of the prefix to the given node.
+	 *
+	 * @param node index of the node
+	 * @return the moves in playing order
+	 */
+	public ArrayList<Move> toMoves(int node) {
+		int[] path = getPath(node);
+		ArrayList<Move> result = new ArrayList<Move>(prefix.size() + path.length);
+		result.addAll(prefix);
+		result.addAll(MoveCodec.toMoves(path, path.length, boulders, startOffsets.clone()));
+		return result;
+	}
+}
@@ -0,0 +1,107 @@
+package hw3;
+
+import java.util.ArrayList;
+
+import api.Move;
+
+/**
+ * Result of a budgeted search: why it stopped, the shortest solution it found
+ * and how much work it did.
+ * 
+ * @Author Ethen Santana
+ */
+public class SolveResult {
+	/**
+	 * Why the search stopped.
+	 */
+	private SolveStatus status;
+
+	/**
+	 * Shortest solution found, or null if none.
+	 */
+	private ArrayList<Move> best;
+
+	/**
+	 * Number of positions expanded.
+	 */
+	private long nodes;
+
+	/**
+	 * Number of distinct positions recorded.
+	 */
+	private int visited;
+
+	/**
+	 * Wall-clock time of the search in milliseconds.
+	 */
+	private long elapsedMillis;
+
+	/**
+	 * Constructs a result.
+	 * 
+	 * @param status        why the search stopped
+	 * @param best          shortest solution found, or null if none
+	 * @param nodes         number of positions expanded
+	 * @param visited       number of distinct positions recorded
+	 * @param elapsedMillis time taken in milliseconds
+	 */
+	public SolveResult(SolveStatus status, ArrayList<Move> best, long nodes, int visited, long elapsedMillis) {
+		this.status = status;
+		this.best = best;
+		this.nodes = nodes;
+		this.visited = visited;
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	/**
+	 * Gets why the search stopped.
+	 * 
+	 * @return the status
+	 */
+	public SolveStatus getStatus() {
+		return status;
+	}
+
+	/**
+	 * Gets the shortest solution found, which is only known to be the shortest
+	 * within the move limit when the status is SOLVED.
+	 * 
+	 * @return the moves of the solution, or null if none was found
+	 */
+	public ArrayList<Move> getBestSolution() {
+		return best;
+	}
+
+	/**
+	 * Gets the number of positions expanded.
+	 * 
+	 * @return number of nodes
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Gets the number of distinct positions recorded.
+	 * 
+	 * @return number of visited positions
+	 */
+	public int getVisited() {
+		return visited;
+	}
+
+	/**
+	 * Gets the wall-clock time of the search.
+	 * 
+	 * @return time in milliseconds
+	 */
+	public long getElapsedMillis() {
+		return elapsedMillis;
+	}
+
+	@Override
+	public String toString() {
+		return status + " (best=" + (best == null ? "none" : best.size() + " moves") + ", nodes=" + nodes
+				+ ", visited=" + visited + ", ms=" + elapsedMillis + ")";
+	}
+}
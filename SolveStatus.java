@@ -0,0 +1,43 @@
+package hw3;
+
+/**
+ * Outcome of a budgeted search (see Solver.solve(Board, SearchLimits,
+ * ProgressListener)).
+ * 
+ * @Author Ethen Santana
+ */
+public enum SolveStatus {
+	/**
+	 * The search ran to its end and found at least one solution. Solver.solve()
+	 * ends after searching the whole space within its move limit, while
+	 * InformedSolver.solveAStar() ends at the first solution, which is a
+	 * shortest one.
+	 */
+	SOLVED,
+
+	/**
+	 * The whole search space was searched and no solution exists within the
+	 * maximum number of moves.
+	 */
+	EXHAUSTED,
+
+	/**
+	 * The search stopped at its deadline.
+	 */
+	TIMED_OUT,
+
+	/**
+	 * The search stopped after expanding its budget of nodes.
+	 */
+	NODE_LIMIT,
+
+	/**
+	 * The search stopped because its visited table reached its memory budget.
+	 */
+	MEMORY_LIMIT,
+
+	/**
+	 * The search was cancelled by a call to Solver.cancel().
+	 */
+	CANCELLED;
+}
@@ -1,15 +1,21 @@
 package hw3;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import api.Move;
 
 /**
  * A puzzle solver for the the game.
- * <p>
- * THE ONLY METHOD YOU ARE CHANGING IN THIS CLASS IS solve().
  */
 public class Solver {
 	/**
@@ -18,16 +24,195 @@ public class Solver {
 	private int maxMoves;
 
 	/**
-	 * Associates a string representation of a grid with the move count required to
-	 * reach that grid layout.
+	 * Associates a packed board state (see StateCodec) with the move count required
+	 * to reach that layout.
 	 */
-	private Map<String, Integer> seen = new HashMap<String, Integer>();
+	private VisitedStates seen;
 
 	/**
-	 * All solutions found in this search.
+	 * Table given to the constructor to use for every search, or null to use a
+	 * new in-memory StateTable for each search.
+	 */
+	private VisitedStates table;
+
+	/**
+	 * Memory in megabytes of the bounded TranspositionTable created for each
+	 * search, or 0 to use an unbounded StateTable.
+	 */
+	private int tableMegabytes;
+
+	/**
+	 * Encodes boards into the keys of seen, created for the board being solved.
+	 */
+	private StateCodec codec;
+
+	/**
+	 * Scratch key reused for every visited board.
+	 */
+	private long[] key;
+
+	/**
+	 * True if equivalent positions are recorded as one in the visited table.
+	 */
+	private boolean reduceSymmetry;
+
+	/**
+	 * Canonicalizes the keys of the current search, or null if the board has
+	 * no symmetry to reduce.
+	 */
+	private StateSymmetry symmetry;
+
+	/**
+	 * Solutions decoded into moves so far, from earlier searches and from the
+	 * start of the current tree.
 	 */
 	private ArrayList<ArrayList<Move>> solutions = new ArrayList<ArrayList<Move>>();
 
+	/**
+	 * Solutions of the current or last search, stored as encoded moves.
+	 */
+	private SolutionTree tree;
+
+	/**
+	 * Number of solutions of tree already decoded into solutions.
+	 */
+	private int decoded;
+
+	/**
+	 * Most legal moves a position of the board being solved can have, two per
+	 * boulder.
+	 */
+	private int branching;
+
+	/**
+	 * Buffer for the legal moves of the position at each depth of the current
+	 * path, encoded by MoveCodec. Buffers are created the first time a depth is
+	 * reached and reused from then on, so the search allocates nothing per
+	 * position.
+	 */
+	private int[][] pathLegal = new int[16][];
+
+	/**
+	 * Encoded move made at each depth of the current path, relative to the
+	 * start of the search.
+	 */
+	private int[] pathMoves = new int[16];
+
+	/**
+	 * Tree node of each depth of the current path, valid up to depth
+	 * pathValid. Nodes are only added to the tree when a solution is found
+	 * below them.
+	 */
+	private int[] pathNodes = new int[16];
+
+	/**
+	 * Deepest depth of the current path whose tree node is in pathNodes.
+	 */
+	private int pathValid;
+
+	/**
+	 * Move count of the board when the search started.
+	 */
+	private int startMoves;
+
+	/**
+	 * Index in the board's move list of the move being searched at each depth
+	 * of the current path.
+	 */
+	private int[] pathCursors = new int[16];
+
+	/**
+	 * File that searches are checkpointed to, or null.
+	 */
+	private Path checkpointFile;
+
+	/**
+	 * Milliseconds between checkpoints.
+	 */
+	private long checkpointMillis;
+
+	/**
+	 * Checkpoint log of the current search, or null.
+	 */
+	private CheckpointLog checkpoint;
+
+	/**
+	 * System.nanoTime() of the next checkpoint.
+	 */
+	private long nextCheckpoint;
+
+	/**
+	 * Set when a checkpoint is due at the next move of the search.
+	 */
+	private boolean checkpointDue;
+
+	/**
+	 * True while the search is walking back down the path of a checkpoint.
+	 */
+	private boolean resuming;
+
+	/**
+	 * Depth of the path being resumed.
+	 */
+	private int resumeDepth;
+
+	/**
+	 * Move index at each depth of the path being resumed.
+	 */
+	private int[] resumeCursors;
+
+	/**
+	 * Number of solver nodes between checks of the clock and the memory budget.
+	 */
+	private static final int CHECK_INTERVAL = 1024;
+
+	/**
+	 * Limits of the current search.
+	 */
+	private SearchLimits limits;
+
+	/**
+	 * Receives progress reports of the current search, or null.
+	 */
+	private ProgressListener listener;
+
+	/**
+	 * Why the current search stopped early, or null while it is running.
+	 */
+	private SolveStatus stopped;
+
+	/**
+	 * Set by cancel() to stop the current or next search, and cleared when a
+	 * search returns its result.
+	 */
+	private volatile boolean cancelled;
+
+	/**
+	 * Number of positions expanded in the current search.
+	 */
+	private long nodes;
+
+	/**
+	 * System.nanoTime() at which the current search times out, if it has a
+	 * timeout.
+	 */
+	private long deadline;
+
+	/**
+	 * System.nanoTime() of the next progress report.
+	 */
+	private long nextReport;
+
+	/**
+	 * System.nanoTime() at which the current search started.
+	 */
+	private long startNanos;
+
+	/**
+	 * Tree node of the shortest solution found in the current search, or -1.
+	 */
+	private int best;
+
 	/**
 	 * Constructs a solver with the given maximum number of moves.
 	 * 
@@ -38,20 +223,52 @@ public class Solver {
 		solutions = new ArrayList<ArrayList<Move>>();
 	}
 
+	/**
+	 * Constructs a solver with the given maximum number of moves that records
+	 * visited positions in the given table, such as a MappedStateTable for state
+	 * spaces larger than the heap. The table's keys must have as many words as
+	 * a StateCodec built from the board being solved. The table is emptied at
+	 * the start of every search, a TranspositionTable by newSearch() and other
+	 * tables by clear(), so one table can serve several searches in turn, of
+	 * the same board or of others with keys of the same length.
+	 * 
+	 * @param givenMaxMoves maximum number of moves
+	 * @param table         the visited position table
+	 */
+	public Solver(int givenMaxMoves, VisitedStates table) {
+		this(givenMaxMoves);
+		this.table = table;
+	}
+
 	/**
 	 * Returns all solutions found in the search. Each solution is a list of moves.
+	 * Solutions are kept in a SolutionTree while searching and only decoded into
+	 * moves here.
 	 * 
 	 * @return list of all solutions
 	 */
 	public ArrayList<ArrayList<Move>> getSolutions() {
+		while (tree != null && decoded < tree.size()) {
+			solutions.add(tree.getSolution(decoded++));
+		}
 		return solutions;
 	}
 
+	/**
+	 * Returns the solutions of the current or last search in their compact
+	 * form, or null if nothing has been solved yet.
+	 * 
+	 * @return the solution tree
+	 */
+	public SolutionTree getSolutionTree() {
+		return tree;
+	}
+
 	/**
 	 * Prints all solutions found in the search.
 	 */
 	public void printSolutions() {
-		for (ArrayList<Move> moves : solutions) {
+		for (ArrayList<Move> moves : getSolutions()) {
 			System.out.println("Solution:");
 			for (Move move : moves) {
 				System.out.println(move);
@@ -61,16 +278,493 @@ public class Solver {
 	}
 
 	/**
-	 * EXTRA CREDIT 10 POINTS
+	 * Sets the memory of the visited table created for each search. With a
+	 * positive size the solver uses a TranspositionTable of that many megabytes,
+	 * which forgets positions instead of growing, so a long search keeps to a
+	 * fixed amount of memory at the cost of searching some positions again. It
+	 * has no effect if a table was given to the constructor.
+	 * 
+	 * @param megabytes table memory, or 0 for an unbounded StateTable
+	 */
+	public void setTableMegabytes(int megabytes) {
+		tableMegabytes = megabytes;
+	}
+
+	/**
+	 * Makes later searches save their progress to the given file every
+	 * intervalMillis milliseconds, when they stop early and when they finish, so
+	 * that an interrupted search can be continued with resume(). The file is
+	 * replaced when a search starts. Checkpoints are written by a background
+	 * thread; the search only collects the visited positions and solutions added
+	 * since the last one.
+	 * 
+	 * @param file           the checkpoint file, or null to stop checkpointing
+	 * @param intervalMillis milliseconds between checkpoints
+	 */
+	public void setCheckpoint(Path file, long intervalMillis) {
+		checkpointFile = file;
+		checkpointMillis = intervalMillis;
+	}
+
+	/**
+	 * Returns the visited table of the current or last search, for example to
+	 * read the counters of a TranspositionTable.
+	 * 
+	 * @return the visited table, or null if nothing has been solved yet
+	 */
+	public VisitedStates getVisitedStates() {
+		return seen;
+	}
+
+	/**
+	 * Sets whether positions that are equivalent for solving (see StateSymmetry)
+	 * are treated as the same position by the visited check. It is off by
+	 * default. On a board whose grid is mirror symmetric this skips the mirror
+	 * images of positions already searched, so solutions through them are not
+	 * listed; the shortest solution length is unaffected.
+	 * 
+	 * @param reduce true to canonicalize positions before the visited check
+	 */
+	public void setSymmetryReduction(boolean reduce) {
+		reduceSymmetry = reduce;
+	}
+
+	/**
+	 * Returns an iterator that runs the search lazily, finding each solution
+	 * only when it is requested, so that memory use does not grow with the
+	 * number of solutions. Solutions are not added to getSolutions(). The board
+	 * must not be changed until the iterator is exhausted.
+	 * 
+	 * @param board any instance of Board
+	 * @return an iterator over the solutions in search order
+	 */
+	public SolutionIterator iterator(Board board) {
+		VisitedStates states = table;
+		if (states == null && tableMegabytes > 0) {
+			states = new TranspositionTable(new StateCodec(board).getWords(), tableMegabytes);
+		}
+		return new SolutionIterator(board, maxMoves, states, reduceSymmetry);
+	}
+
+	/**
+	 * Returns a sequential stream of the solutions to the given board, backed by
+	 * iterator(Board).
+	 * 
+	 * @param board any instance of Board
+	 * @return a lazy stream of solutions in search order
+	 */
+	public Stream<ArrayList<Move>> stream(Board board) {
+		Spliterator<ArrayList<Move>> spliterator = Spliterators.spliteratorUnknownSize(iterator(board),
+				Spliterator.ORDERED | Spliterator.NONNULL);
+		return StreamSupport.stream(spliterator, false);
+	}
+
+	/**
+	 * Searches for solutions to the given board and writes each one to the given
+	 * file as soon as it is found, one line per solution. Each move is written as
+	 * the index of the boulder in getBoulders() and the direction, for example
+	 * "0:RIGHT 2:UP 0:RIGHT".
+	 * 
+	 * @param board any instance of Board
+	 * @param file  the file to write, replaced if it exists
+	 * @return the number of solutions written
+	 * @throws IOException if the file cannot be written
+	 */
+	public long writeSolutions(Board board, Path file) throws IOException {
+		ArrayList<Boulder> boulders = board.getBoulders();
+		long count = 0;
+		try (BufferedWriter out = Files.newBufferedWriter(file)) {
+			SolutionIterator solutions = iterator(board);
+			while (solutions.hasNext()) {
+				boolean first = true;
+				for (Move move : solutions.next()) {
+					if (!first) {
+						out.write(' ');
+					}
+					first = false;
+					out.write(boulders.indexOf(move.getBoulder()) + ":" + move.getDirection());
+				}
+				out.newLine();
+				count += 1;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Recursively search for solutions to the given board instance. This method
+	 * does not return anything its purpose is to update the instance variable
+	 * solutions with every solution found. The board is left in the position it
+	 * was given in.
 	 * <p>
-	 * Recursively search for solutions to the given board instance according to the
-	 * algorithm described in the assignment pdf. This method does not return
-	 * anything its purpose is to update the instance variable solutions with every
-	 * solution found.
+	 * A position that was already reached in the same or fewer moves is not
+	 * searched again.
 	 * 
 	 * @param board any instance of Board
 	 */
 	public void solve(Board board) {
-		// TODO
+		solve(board, new SearchLimits(), null);
+	}
+
+	/**
+	 * Searches for solutions to the given board like solve(Board), but stops
+	 * early when any of the given limits is reached or cancel() is called. The
+	 * listener, if not null, is sent progress reports at the interval set in the
+	 * limits. Solutions found before stopping are kept in getSolutions(), and the
+	 * board is left in the position it was given in.
+	 * 
+	 * @param board    any instance of Board
+	 * @param limits   bounds on time, nodes and memory
+	 * @param listener receives progress reports, or null
+	 * @return the outcome of the search with the shortest solution found
+	 */
+	public SolveResult solve(Board board, SearchLimits limits, ProgressListener listener) {
+		begin(board, limits, listener);
+		if (checkpointFile != null) {
+			try {
+				checkpoint = new CheckpointLog(checkpointFile, maxMoves, startKey(board));
+			}
+			catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		return finish(board);
+	}
+
+	/**
+	 * Continues a search from the checkpoint file set with setCheckpoint(). The
+	 * board must be in the position, and the solver have the move limit, that
+	 * the checkpointed search started with. The visited positions and solutions
+	 * of the checkpoint are restored and the search carries on from where the
+	 * checkpoint was written, appending further checkpoints to the same file.
+	 * Solutions found before the checkpoint are included in getSolutions() and
+	 * in the result. A checkpoint of a finished search just restores its
+	 * solutions.
+	 * 
+	 * @param board    any instance of Board
+	 * @param limits   bounds on time, nodes and memory for the rest of the search
+	 * @param listener receives progress reports, or null
+	 * @return the outcome of the whole search
+	 * @throws IOException if the checkpoint cannot be read or was written for a
+	 *                     different board or move limit
+	 */
+	public SolveResult resume(Board board, SearchLimits limits, ProgressListener listener) throws IOException {
+		if (checkpointFile == null) {
+			throw new IllegalStateException("no checkpoint file set");
+		}
+		begin(board, limits, listener);
+		CheckpointLog.State state = CheckpointLog.read(checkpointFile, maxMoves, startKey(board), seen, startMoves);
+		nodes = state.nodes;
+
+		// Rebuild the solution tree, sharing nodes with the previous solution's path
+		int[] previous = new int[0];
+		for (int[] path : state.solutions) {
+			int shared = 0;
+			while (shared < path.length && shared < previous.length && path[shared] == previous[shared]) {
+				shared += 1;
+			}
+			growPath(path.length);
+			for (int d = shared + 1; d <= path.length; ++d) {
+				pathNodes[d] = tree.add(pathNodes[d - 1], path[d - 1]);
+			}
+			tree.addSolution(pathNodes[path.length]);
+			if (best < 0 || path.length < tree.getDepth(best)) {
+				best = pathNodes[path.length];
+			}
+			previous = path;
+		}
+		pathValid = 0;
+
+		checkpoint = new CheckpointLog(checkpointFile, codec.getWords(), state.length);
+		if (!state.found) {
+			// No checkpoint was completed, start from the beginning
+			return finish(board);
+		}
+		if (state.depth == CheckpointLog.FINISHED) {
+			checkpoint.close();
+			checkpoint = null;
+			return result(board);
+		}
+		resuming = true;
+		resumeDepth = state.depth;
+		resumeCursors = state.cursors;
+		growPath(state.depth + 1);
+		return finish(board);
+	}
+
+	/**
+	 * Sets up the fields of a new search of the given board.
+	 */
+	private void begin(Board board, SearchLimits limits, ProgressListener listener) {
+		long start = System.nanoTime();
+		this.limits = limits;
+		this.listener = listener;
+		stopped = null;
+		nodes = 0;
+		best = -1;
+		deadline = start + limits.getTimeoutMillis() * 1000000L;
+		nextReport = start + limits.getProgressMillis() * 1000000L;
+
+		codec = new StateCodec(board);
+		key = codec.newKey();
+		if (table != null) {
+			startSearch(table);
+			seen = table;
+		}
+		else if (tableMegabytes > 0) {
+			seen = new TranspositionTable(codec.getWords(), tableMegabytes);
+		}
+		else {
+			seen = new StateTable(codec.getWords());
+		}
+		symmetry = symmetryFor(board, codec, reduceSymmetry);
+
+		// Decode what is left of the last tree so that solutions keep accumulating
+		getSolutions();
+		tree = new SolutionTree(board);
+		decoded = 0;
+		branching = 2 * board.getBoulders().size();
+		startMoves = board.getMoveCount();
+		pathNodes[0] = SolutionTree.ROOT;
+		pathValid = 0;
+		resuming = false;
+		checkpointDue = false;
+		nextCheckpoint = start + checkpointMillis * 1000000L;
+		startNanos = start;
+	}
+
+	/**
+	 * Runs the search set up by begin() and returns its result.
+	 */
+	private SolveResult finish(Board board) {
+		try {
+			search(board);
+			if (checkpoint != null && stopped == null) {
+				checkpoint.commit(CheckpointLog.FINISHED, pathMoves, pathCursors, nodes);
+			}
+		}
+		finally {
+			if (checkpoint != null) {
+				checkpoint.close();
+				checkpoint = null;
+			}
+		}
+		return result(board);
+	}
+
+	/**
+	 * Returns the result of the current search.
+	 */
+	private SolveResult result(Board board) {
+		SolveStatus status = stopped;
+		if (status == null) {
+			status = tree.size() == 0 ? SolveStatus.EXHAUSTED : SolveStatus.SOLVED;
+		}
+		ArrayList<Move> shortest = best < 0 ? null : tree.toMoves(best);
+		if (listener != null) {
+			listener.progress(nodes, board.getMoveCount(), seen.size(), shortest);
+		}
+		listener = null;
+
+		// A cancel() from now on is meant for the next search
+		cancelled = false;
+		return new SolveResult(status, shortest, nodes, seen.size(), (System.nanoTime() - startNanos) / 1000000L);
+	}
+
+	/**
+	 * Asks the current search to stop as soon as possible. May be called from
+	 * any thread; the search returns with status CANCELLED. If no search is
+	 * running, the next one is cancelled as soon as it starts.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Depth first search from the current position of the board, undoing every
+	 * move before returning.
+	 * 
+	 * @param board the board being solved
+	 */
+	private void search(Board board) {
+		int moves = board.getMoveCount();
+		int depth = moves - startMoves;
+
+		// Positions on the path of a resumed checkpoint were already visited
+		if (!resuming) {
+			if (moves > maxMoves || stopped != null) {
+				return;
+			}
+
+			// Record the moves that reached a solved board, adding the missing path nodes to the tree
+			if (board.isGameOver()) {
+				for (int d = pathValid + 1; d <= depth; ++d) {
+					pathNodes[d] = tree.add(pathNodes[d - 1], pathMoves[d - 1]);
+				}
+				pathValid = depth;
+				tree.addSolution(pathNodes[depth]);
+				if (best < 0 || depth < tree.getDepth(best)) {
+					best = pathNodes[depth];
+				}
+				if (checkpoint != null) {
+					checkpoint.solution(pathMoves, depth);
+				}
+				return;
+			}
+
+			// Skip positions already reached in the same or fewer moves
+			if (symmetry != null) {
+				symmetry.encode(board, key);
+			}
+			else {
+				codec.encode(board, key);
+			}
+			if (!seen.visit(key, moves)) {
+				return;
+			}
+			if (checkpoint != null) {
+				checkpoint.visit(key, depth);
+			}
+			nodes += 1;
+			growPath(depth + 1);
+			if (checkLimits(moves)) {
+				// Nothing below this position has been searched yet
+				if (checkpoint != null) {
+					pathCursors[depth] = 0;
+					checkpoint.commit(depth, pathMoves, pathCursors, nodes);
+				}
+				return;
+			}
+		}
+
+		// A resumed path continues with the move it was on, and the last position with the next one
+		int first = 0;
+		if (resuming) {
+			first = resumeCursors[depth];
+			resuming = depth < resumeDepth;
+		}
+
+		// Each depth lists its legal moves in its own buffer, in the order of getAllPossibleMoves()
+		if (pathLegal[depth] == null || pathLegal[depth].length < branching) {
+			pathLegal[depth] = new int[branching];
+		}
+		int[] legal = pathLegal[depth];
+		int count = board.getAllPossibleMoves(legal);
+		for (int c = first; c < count && stopped == null; ++c) {
+			pathCursors[depth] = c;
+			if (checkpointDue) {
+				checkpointDue = false;
+				checkpoint.commit(depth, pathMoves, pathCursors, nodes);
+			}
+			pathMoves[depth] = legal[c];
+			pathValid = Math.min(pathValid, depth);
+			board.applyMove(pathMoves[depth]);
+			search(board);
+			board.undoMove();
+		}
+	}
+
+	/**
+	 * Makes sure the path arrays have room for the given depth.
+	 * 
+	 * @param depth deepest depth that will be stored
+	 */
+	private void growPath(int depth) {
+		while (depth >= pathNodes.length) {
+			pathNodes = Arrays.copyOf(pathNodes, pathNodes.length * 2);
+			pathMoves = Arrays.copyOf(pathMoves, pathMoves.length * 2);
+			pathCursors = Arrays.copyOf(pathCursors, pathCursors.length * 2);
+			pathLegal = Arrays.copyOf(pathLegal, pathLegal.length * 2);
+		}
+	}
+
+	/**
+	 * Returns the packed start position of the board, as recorded in
+	 * checkpoints.
+	 * 
+	 * @param board the board being solved
+	 * @return the packed position
+	 */
+	private long[] startKey(Board board) {
+		long[] start = codec.newKey();
+		codec.encode(board, start);
+		return start;
+	}
+
+	/**
+	 * Checks the limits of the current search and sends due progress reports.
+	 * The clock and memory are only checked every CHECK_INTERVAL nodes.
+	 * 
+	 * @param depth number of moves made to reach the current position
+	 * @return true if the search should stop, with the reason in stopped
+	 */
+	private boolean checkLimits(int depth) {
+		if (cancelled) {
+			stopped = SolveStatus.CANCELLED;
+		}
+		else if (limits.getMaxNodes() > 0 && nodes >= limits.getMaxNodes()) {
+			stopped = SolveStatus.NODE_LIMIT;
+		}
+		else if (nodes % CHECK_INTERVAL == 0) {
+			long now = System.nanoTime();
+			if (limits.getTimeoutMillis() > 0 && now - deadline >= 0) {
+				stopped = SolveStatus.TIMED_OUT;
+			}
+			else if (limits.getMaxMemoryBytes() > 0 && estimateMemory() >= limits.getMaxMemoryBytes()) {
+				stopped = SolveStatus.MEMORY_LIMIT;
+			}
+			else if (listener != null && now - nextReport >= 0) {
+				listener.progress(nodes, depth, seen.size(), best < 0 ? null : tree.toMoves(best));
+				nextReport = now + limits.getProgressMillis() * 1000000L;
+			}
+			if (checkpoint != null && now - nextCheckpoint >= 0) {
+				checkpointDue = true;
+				nextCheckpoint = now + checkpointMillis * 1000000L;
+			}
+		}
+		return stopped != null;
+	}
+
+	/**
+	 * Empties a visited table given to a solver for a new search. A
+	 * TranspositionTable starts a new generation instead of erasing its slots,
+	 * which makes the entries of earlier searches count as free.
+	 * 
+	 * @param table the visited table
+	 */
+	static void startSearch(VisitedStates table) {
+		if (table instanceof TranspositionTable) {
+			((TranspositionTable) table).newSearch();
+		}
+		else {
+			table.clear();
+		}
+	}
+
+	/**
+	 * Returns the symmetry of the given board if reduction is wanted and the
+	 * board has something to reduce, otherwise null.
+	 * 
+	 * @param board  the board being solved
+	 * @param codec  the codec for its keys
+	 * @param reduce true if symmetry reduction is enabled
+	 * @return the board's symmetry, or null
+	 */
+	static StateSymmetry symmetryFor(Board board, StateCodec codec, boolean reduce) {
+		if (!reduce) {
+			return null;
+		}
+		StateSymmetry symmetry = new StateSymmetry(board, codec);
+		return symmetry.getMirrorCount() > 0 ? symmetry : null;
+	}
+
+	/**
+	 * Estimates the heap used by the visited table: per position, the key and
+	 * the move count, plus two hash slots at the table's load factor.
+	 * 
+	 * @return estimated memory in bytes
+	 */
+	private long estimateMemory() {
+		return (long) seen.size() * (codec.getWords() * 8L + 4 + 8);
 	}
 }
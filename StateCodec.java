@@ -0,0 +1,154 @@
+package hw3;
+
+import java.util.ArrayList;
+
+import api.Orientation;
+
+/**
+ * Packs the position of every boulder on a board into a compact array of longs.
+ * A boulder can only slide along its own lane (its row if it is horizontal, its
+ * column if it is vertical), so its position is fully described by a single
+ * offset along that lane. Each offset is stored in just enough bits to hold the
+ * lane length, and the fields are packed into as few 64 bit words as possible.
+ * <p>
+ * A codec is tied to the board it was created from: the boulders must be in the
+ * same order and have the same lanes whenever a key is encoded.
+ * @Author Ethen Santana
+ */
+public class StateCodec {
+	/**
+	 * Orientation of each boulder, in the order of the board's boulder list.
+	 */
+	private boolean[] horizontal;
+
+	/**
+	 * Index of the word holding each boulder's offset.
+	 */
+	private int[] word;
+
+	/**
+	 * Bit position of each boulder's offset within its word.
+	 */
+	private int[] shift;
+
+	/**
+	 * Mask of the bits of each boulder's offset, before shifting.
+	 */
+	private long[] mask;
+
+	/**
+	 * Number of longs in a packed key.
+	 */
+	private int words;
+
+	/**
+	 * Constructs a codec for the boulders of the given board.
+	 *
+	 * @param board the board whose positions will be encoded
+	 */
+	public StateCodec(Board board) {
+		ArrayList<Boulder> boulders = board.getBoulders();
+		int count = boulders.size();
+		horizontal = new boolean[count];
+		word = new int[count];
+		shift = new int[count];
+		mask = new long[count];
+
+		int w = 0;
+		int used = 0;
+		for (int i = 0; i < count; ++i) {
+			Boulder b = boulders.get(i);
+			horizontal[i] = b.getOrientation() == Orientation.HORIZONTAL;
+
+			// Enough bits to hold any offset along the lane
+			int laneLength = horizontal[i] ? board.getColSize() : board.getRowSize();
+			int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(laneLength - 1));
+
+			// Fields never straddle two words
+			if (used + bits > 64) {
+				w += 1;
+				used = 0;
+			}
+			word[i] = w;
+			shift[i] = used;
+			mask[i] = (1L << bits) - 1;
+			used += bits;
+		}
+		words = w + 1;
+	}
+
+	/**
+	 * Returns the number of longs in a packed key.
+	 *
+	 * @return key length in words
+	 */
+	public int getWords() {
+		return words;
+	}
+
+	/**
+	 * Allocates an empty key of the right length for this codec.
+	 *
+	 * @return a new key
+	 */
+	public long[] newKey() {
+		return new long[words];
+	}
+
+	/**
+	 * Writes the current boulder positions of the given board into key.
+	 *
+	 * @param board the board to encode, must match the one the codec was built from
+	 * @param key   destination array of at least getWords() longs
+	 */
+	public void encode(Board board, long[] key) {
+		for (int i = 0; i < words; ++i) {
+			key[i] = 0;
+		}
+		ArrayList<Boulder> boulders = board.getBoulders();
+		for (int i = 0; i < horizontal.length; ++i) {
+			Boulder b = boulders.get(i);
+			long offset = horizontal[i] ? b.getFirstCol() : b.getFirstRow();
+			key[word[i]] |= offset << shift[i];
+		}
+	}
+
+	/**
+	 * Writes the given lane offsets, one per boulder as produced by decode(),
+	 * into key.
+	 *
+	 * @param offsets lane offset of each boulder
+	 * @param key     destination array of at least getWords() longs
+	 */
+	public void encode(int[] offsets, long[] key) {
+		for (int i = 0; i < words; ++i) {
+			key[i] = 0;
+		}
+		for (int i = 0; i < horizontal.length; ++i) {
+			key[word[i]] |= (long) offsets[i] << shift[i];
+		}
+	}
+
+	/**
+	 * Reads the lane offset of every boulder from key. Offsets are columns for
+	 * horizontal boulders and rows for vertical boulders, in the order of the
+	 * board's boulder list, and can be applied with Board.setPosition().
+	 *
+	 * @param key     a key produced by encode()
+	 * @param offsets destination array with one entry per boulder
+	 */
+	public void decode(long[] key, int[] offsets) {
+		for (int i = 0; i < horizontal.length; ++i) {
+			offsets[i] = (int) ((key[word[i]] >>> shift[i]) & mask[i]);
+		}
+	}
+
+	/**
+	 * Returns the number of boulders covered by this codec.
+	 *
+	 * @return number of boulders
+	 */
+	public int getBoulderCount() {
+		return horizontal.length;
+	}
+}
@@ -0,0 +1,285 @@
+package hw3;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import api.CellType;
+import api.Orientation;
+
+/**
+ * Maps a board position to a canonical representative of the positions that
+ * are equivalent to it for solving, so that a search can record only the
+ * representative in its visited table.
+ * <p>
+ * If the grid of walls and exits looks the same when mirrored left to right,
+ * top to bottom or both, and the boulder lanes mirror onto lanes holding the
+ * same boulders, then a position and its mirror image have mirrored solutions
+ * of the same length. The canonical position is the smallest, comparing
+ * offsets in boulder order, of the position and its mirror images. Boulders in
+ * the same lane can never pass each other, so a mirror that reverses a lane
+ * gives the boulders in it the mirrored offsets in reverse order.
+ * <p>
+ * Like StateCodec, an instance is tied to the board it was created from.
+ * @Author Ethen Santana
+ */
+public class StateSymmetry {
+	/**
+	 * Encodes canonical positions into keys.
+	 */
+	private StateCodec codec;
+
+	/**
+	 * Boulders of the board.
+	 */
+	private ArrayList<Boulder> boulders;
+
+	/**
+	 * Boulder indexes of each group of boulders with the same length and
+	 * orientation sharing a lane, in their order along the lane, which never
+	 * changes.
+	 */
+	private int[][] groups;
+
+	/**
+	 * Number of rows of the grid.
+	 */
+	private int rows;
+
+	/**
+	 * Number of columns of the grid.
+	 */
+	private int cols;
+
+	/**
+	 * For each usable mirror, the group each group is mapped onto.
+	 */
+	private int[][] targets;
+
+	/**
+	 * For each usable mirror, whether it flips columns and whether it flips rows.
+	 */
+	private boolean[][] flips;
+
+	/**
+	 * Current position.
+	 */
+	private int[] offsets;
+
+	/**
+	 * Mirror image being compared with the current position.
+	 */
+	private int[] mirrored;
+
+	/**
+	 * Position that the mirror images are taken of.
+	 */
+	private int[] source;
+
+	/**
+	 * Constructs the symmetries of the given board.
+	 *
+	 * @param board the board whose positions will be canonicalized
+	 * @param codec the codec for the board's keys
+	 */
+	public StateSymmetry(Board board, StateCodec codec) {
+		this.codec = codec;
+		boulders = board.getBoulders();
+		rows = board.getRowSize();
+		cols = board.getColSize();
+		offsets = new int[boulders.size()];
+		mirrored = new int[boulders.size()];
+		source = new int[boulders.size()];
+
+		// Group boulders of the same length and orientation sharing a lane, ordered along it
+		int[] start = MoveCodec.offsets(boulders);
+		ArrayList<int[]> found = new ArrayList<int[]>();
+		boolean[] grouped = new boolean[boulders.size()];
+		for (int i = 0; i < boulders.size(); ++i) {
+			if (grouped[i]) {
+				continue;
+			}
+			int[] group = new int[0];
+			for (int j = i; j < boulders.size(); ++j) {
+				if (!grouped[j] && sameKind(i, j) && lane(i) == lane(j)) {
+					grouped[j] = true;
+					int k = group.length;
+					group = Arrays.copyOf(group, k + 1);
+					while (k > 0 && start[group[k - 1]] > start[j]) {
+						group[k] = group[k - 1];
+						k -= 1;
+					}
+					group[k] = j;
+				}
+			}
+			found.add(group);
+		}
+		groups = found.toArray(new int[found.size()][]);
+
+		// Keep the mirrors that map the grid and the boulder groups onto themselves
+		ArrayList<int[]> usable = new ArrayList<int[]>();
+		ArrayList<boolean[]> usableFlips = new ArrayList<boolean[]>();
+		boolean[][] candidates = { { true, false }, { false, true }, { true, true } };
+		for (boolean[] flip : candidates) {
+			int[] target = mirror(board, flip[0], flip[1]);
+			if (target != null) {
+				usable.add(target);
+				usableFlips.add(flip);
+			}
+		}
+		targets = usable.toArray(new int[usable.size()][]);
+		flips = usableFlips.toArray(new boolean[usableFlips.size()][]);
+	}
+
+	/**
+	 * Returns the number of mirrors of the grid that positions are compared
+	 * with, zero if the grid has no symmetry.
+	 *
+	 * @return number of usable mirrors
+	 */
+	public int getMirrorCount() {
+		return targets.length;
+	}
+
+	/**
+	 * Replaces the given lane offsets with those of the canonical equivalent
+	 * position.
+	 *
+	 * @param position one lane offset per boulder, changed in place
+	 */
+	public void canonicalize(int[] position) {
+		System.arraycopy(position, 0, source, 0, position.length);
+		for (int t = 0; t < targets.length; ++t) {
+			for (int g = 0; g < groups.length; ++g) {
+				int[] to = groups[targets[t][g]];
+				boolean reversed = reverses(groups[g][0], flips[t]);
+				for (int k = 0; k < groups[g].length; ++k) {
+					int at = reversed ? to.length - 1 - k : k;
+					mirrored[to[at]] = reflect(groups[g][k], source[groups[g][k]], flips[t]);
+				}
+			}
+			if (compare(mirrored, position) < 0) {
+				System.arraycopy(mirrored, 0, position, 0, position.length);
+			}
+		}
+	}
+
+	/**
+	 * Packs the canonical equivalent of the board's current position into the
+	 * given key.
+	 *
+	 * @param board the board, with the same boulders as the one given to the
+	 *              constructor
+	 * @param key   array of at least codec.getWords() longs
+	 */
+	public void encode(Board board, long[] key) {
+		for (int i = 0; i < offsets.length; ++i) {
+			Boulder b = boulders.get(i);
+			offsets[i] = b.getOrientation() == Orientation.HORIZONTAL ? b.getFirstCol() : b.getFirstRow();
+		}
+		canonicalize(offsets);
+		codec.encode(offsets, key);
+	}
+
+	/**
+	 * Returns the group mapping of the mirror with the given flips, or null if
+	 * the grid or the boulders are not symmetric under it.
+	 */
+	private int[] mirror(Board board, boolean flipCols, boolean flipRows) {
+		for (int row = 0; row < rows; ++row) {
+			for (int col = 0; col < cols; ++col) {
+				int toRow = flipRows ? rows - 1 - row : row;
+				int toCol = flipCols ? cols - 1 - col : col;
+				if (type(board, row, col) != type(board, toRow, toCol)) {
+					return null;
+				}
+			}
+		}
+
+		// Every group must land on a group of the same size, kind and lane
+		int[] target = new int[groups.length];
+		for (int g = 0; g < groups.length; ++g) {
+			int first = groups[g][0];
+			boolean horizontal = boulders.get(first).getOrientation() == Orientation.HORIZONTAL;
+			int lane = lane(first);
+			if (horizontal && flipRows) {
+				lane = rows - 1 - lane;
+			}
+			else if (!horizontal && flipCols) {
+				lane = cols - 1 - lane;
+			}
+			target[g] = -1;
+			for (int h = 0; h < groups.length && target[g] < 0; ++h) {
+				int other = groups[h][0];
+				if (groups[h].length == groups[g].length && sameKind(first, other) && lane(other) == lane) {
+					target[g] = h;
+				}
+			}
+			if (target[g] < 0) {
+				return null;
+			}
+		}
+		return target;
+	}
+
+	/**
+	 * Returns the lane offset of boulder i at the given offset after the
+	 * mirror with the given flips.
+	 */
+	private int reflect(int i, int offset, boolean[] flip) {
+		Boulder b = boulders.get(i);
+		if (b.getOrientation() == Orientation.HORIZONTAL) {
+			return flip[0] ? cols - b.getLength() - offset : offset;
+		}
+		else {
+			return flip[1] ? rows - b.getLength() - offset : offset;
+		}
+	}
+
+	/**
+	 * Returns true if the mirror with the given flips reverses the lane of
+	 * boulder i.
+	 */
+	private boolean reverses(int i, boolean[] flip) {
+		return boulders.get(i).getOrientation() == Orientation.HORIZONTAL ? flip[0] : flip[1];
+	}
+
+	/**
+	 * Compares two positions by their offsets in boulder order.
+	 */
+	private static int compare(int[] a, int[] b) {
+		for (int i = 0; i < a.length; ++i) {
+			if (a[i] != b[i]) {
+				return a[i] < b[i] ? -1 : 1;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Returns true if boulders i and j have the same length and orientation.
+	 */
+	private boolean sameKind(int i, int j) {
+		Boulder a = boulders.get(i);
+		Boulder b = boulders.get(j);
+		return a.getLength() == b.getLength() && a.getOrientation() == b.getOrientation();
+	}
+
+	/**
+	 * Returns the lane of boulder i: its row if it is horizontal, its column if
+	 * it is vertical.
+	 */
+	private int lane(int i) {
+		Boulder b = boulders.get(i);
+		return b.getOrientation() == Orientation.HORIZONTAL ? b.getFirstRow() : b.getFirstCol();
+	}
+
+	/**
+	 * Returns the type of the cell at the given position, ignoring boulders.
+	 */
+	private static CellType type(Board board, int row, int col) {
+		if (board.getCellAt(row, col).isWall()) {
+			return CellType.WALL;
+		}
+		return board.getCellAt(row, col).isExit() ? CellType.EXIT : CellType.GROUND;
+	}
+}
@@ -0,0 +1,228 @@
+package hw3;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash table from packed board states (see StateCodec) to an
+ * int value. Keys are copied into one flat array in insertion order, so every
+ * state also gets a stable index that can be used to look it up again. No
+ * objects are allocated per entry.
+ * @Author Ethen Santana
+ */
+public class StateTable implements VisitedStates {
+	/**
+	 * Number of longs in each key.
+	 */
+	private int words;
+
+	/**
+	 * Keys of all states, words longs per state, in insertion order.
+	 */
+	private long[] keys;
+
+	/**
+	 * Value associated with each state, by index.
+	 */
+	private int[] values;
+
+	/**
+	 * Hash slots holding (index + 1) of a state, 0 for an empty slot.
+	 */
+	private int[] slots;
+
+	/**
+	 * Number of states in the table.
+	 */
+	private int size;
+
+	/**
+	 * Constructs an empty table for keys of the given length.
+	 *
+	 * @param words number of longs per key
+	 */
+	public StateTable(int words) {
+		this(words, 1024);
+	}
+
+	/**
+	 * Constructs an empty table for keys of the given length, sized to hold
+	 * roughly expectedSize states before growing.
+	 *
+	 * @param words        number of longs per key
+	 * @param expectedSize expected number of states
+	 */
+	public StateTable(int words, int expectedSize) {
+		this.words = words;
+		int capacity = Integer.highestOneBit(Math.max(16, expectedSize) * 2 - 1) * 2;
+		slots = new int[capacity];
+		keys = new long[capacity / 2 * words];
+		values = new int[capacity / 2];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Removes all states from the table.
+	 */
+	@Override
+	public void clear() {
+		Arrays.fill(slots, 0);
+		size = 0;
+	}
+
+	/**
+	 * Returns the index of the given state, or -1 if it is not in the table.
+	 *
+	 * @param key the packed state
+	 * @return index of the state or -1
+	 */
+	public int find(long[] key) {
+		int mask = slots.length - 1;
+		int slot = (int) hash(key) & mask;
+		while (slots[slot] != 0) {
+			int index = slots[slot] - 1;
+			if (matches(key, index)) {
+				return index;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Adds the given state if it is not already present. The value of a newly
+	 * added state is 0. Like Arrays.binarySearch, the result is the index of the
+	 * new state, or (-(index) - 1) if the state was already present.
+	 *
+	 * @param key the packed state, which is copied
+	 * @return index of the added state, or (-(index) - 1) of the existing one
+	 */
+	public int insert(long[] key) {
+		int mask = slots.length - 1;
+		int slot = (int) hash(key) & mask;
+		while (slots[slot] != 0) {
+			int index = slots[slot] - 1;
+			if (matches(key, index)) {
+				return -index - 1;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		// Keep the load factor at or below one half
+		if (size >= slots.length / 2) {
+			grow();
+			return insert(key);
+		}
+		int index = size;
+		System.arraycopy(key, 0, keys, index * words, words);
+		values[index] = 0;
+		slots[slot] = index + 1;
+		size += 1;
+		return index;
+	}
+
+	/**
+	 * Records the move count of a state in its value, keeping the smallest.
+	 *
+	 * @param key   the packed state
+	 * @param moves number of moves made to reach the state
+	 * @return true if the state is new or its move count was lowered
+	 */
+	@Override
+	public boolean visit(long[] key, int moves) {
+		int index = insert(key);
+		if (index < 0) {
+			index = -index - 1;
+			if (values[index] <= moves) {
+				return false;
+			}
+		}
+		values[index] = moves;
+		return true;
+	}
+
+	/**
+	 * Returns the value of the state at the given index.
+	 *
+	 * @param index index of the state
+	 * @return the value
+	 */
+	public int getValue(int index) {
+		return values[index];
+	}
+
+	/**
+	 * Sets the value of the state at the given index.
+	 *
+	 * @param index index of the state
+	 * @param value the new value
+	 */
+	public void setValue(int index, int value) {
+		values[index] = value;
+	}
+
+	/**
+	 * Copies the key of the state at the given index into key.
+	 *
+	 * @param index index of the state
+	 * @param key   destination array of at least words longs
+	 */
+	public void getKey(int index, long[] key) {
+		System.arraycopy(keys, index * words, key, 0, words);
+	}
+
+	/**
+	 * Returns true if the state at index has the given key.
+	 */
+	private boolean matches(long[] key, int index) {
+		int base = index * words;
+		for (int i = 0; i < words; ++i) {
+			if (keys[base + i] != key[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Doubles the number of slots and rehashes every state.
+	 */
+	private void grow() {
+		int capacity = slots.length * 2;
+		slots = new int[capacity];
+		keys = Arrays.copyOf(keys, capacity / 2 * words);
+		values = Arrays.copyOf(values, capacity / 2);
+
+		int mask = capacity - 1;
+		long[] key = new long[words];
+		for (int index = 0; index < size; ++index) {
+			getKey(index, key);
+			int slot = (int) hash(key) & mask;
+			while (slots[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			slots[slot] = index + 1;
+		}
+	}
+
+	/**
+	 * Mixes all words of a key into a well distributed 64 bit hash.
+	 *
+	 * @param key the packed state
+	 * @return hash of the key
+	 */
+	public static long hash(long[] key) {
+		long h = 0x9E3779B97F4A7C15L;
+		for (long w : key) {
+			h = (h ^ w) * 0xBF58476D1CE4E5B9L;
+			h ^= h >>> 31;
+		}
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		return h;
+	}
+}
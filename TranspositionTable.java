@@ -0,0 +1,251 @@
+package hw3;
+
+import java.util.Arrays;
+
+/**
+ * Fixed size visited position table for depth limited search. Unlike
+ * StateTable it never grows: when a position does not fit, an older entry is
+ * overwritten, so a long search uses a set amount of memory and at worst
+ * searches a forgotten position again.
+ * <p>
+ * Slots are grouped in buckets of four adjacent slots, and a position can only
+ * be stored in the bucket its hash selects, so a lookup touches one or two
+ * cache lines. All slots live in one long array: each slot is the key words
+ * followed by a word holding the move count (plus one, so that zero marks an
+ * empty slot) and the generation the entry was last written in. When a new
+ * position finds its bucket full, the entry replaced is one left over from an
+ * earlier generation if there is one, otherwise the one reached in the most
+ * moves, since a position near the root stands for a larger part of the search.
+ * <p>
+ * The generation starts at zero and is advanced by newSearch(), which empties
+ * the table for the next search without touching its slots: an entry of an
+ * earlier generation is never reported as visited and is the first to be
+ * replaced, so a large table is reused at no cost between searches.
+ * Hit, miss and eviction counts are kept for tuning the table size.
+ * @Author Ethen Santana
+ */
+public class TranspositionTable implements VisitedStates {
+	/**
+	 * Number of slots in each bucket.
+	 */
+	private static final int BUCKET_SLOTS = 4;
+
+	/**
+	 * Bits of the slot word holding the move count plus one.
+	 */
+	private static final long MOVES_MASK = 0xFFFFFFFFL;
+
+	/**
+	 * Number of longs in each key.
+	 */
+	private int words;
+
+	/**
+	 * Number of longs per slot: the key and the move word.
+	 */
+	private int slotWords;
+
+	/**
+	 * Number of buckets, a power of two.
+	 */
+	private int buckets;
+
+	/**
+	 * The slots of all buckets.
+	 */
+	private long[] table;
+
+	/**
+	 * Generation written into new and updated entries.
+	 */
+	private int generation;
+
+	/**
+	 * Number of slots written in the current generation.
+	 */
+	private int size;
+
+	/**
+	 * Number of visits that found their position in the table.
+	 */
+	private long hits;
+
+	/**
+	 * Number of visits that did not find their position in the table.
+	 */
+	private long misses;
+
+	/**
+	 * Number of entries of the current generation overwritten by other
+	 * positions.
+	 */
+	private long evictions;
+
+	/**
+	 * Constructs a table for keys of the given length using at most the given
+	 * number of megabytes.
+	 *
+	 * @param words     number of longs per key
+	 * @param megabytes memory for the slots, at least one
+	 */
+	public TranspositionTable(int words, int megabytes) {
+		this.words = words;
+		slotWords = words + 1;
+		long bucketBytes = (long) BUCKET_SLOTS * slotWords * 8;
+		long count = Math.max(1, ((long) megabytes << 20) / bucketBytes);
+
+		// A power of two, and small enough for one array
+		count = Math.min(Long.highestOneBit(count), Integer.highestOneBit(Integer.MAX_VALUE / (BUCKET_SLOTS * slotWords)));
+		buckets = (int) count;
+		table = new long[buckets * BUCKET_SLOTS * slotWords];
+	}
+
+	/**
+	 * Records the move count of a position, keeping the smallest. If the
+	 * position is not in the table it is stored, replacing another entry if its
+	 * bucket is full.
+	 *
+	 * @param key   the packed position
+	 * @param moves number of moves made to reach the position
+	 * @return true if the position was not in the table or its move count was
+	 *         lowered
+	 */
+	@Override
+	public boolean visit(long[] key, int moves) {
+		int first = (int) (StateTable.hash(key) & (buckets - 1)) * BUCKET_SLOTS * slotWords;
+		int victim = -1;
+		long victimScore = -1;
+		for (int s = 0; s < BUCKET_SLOTS; ++s) {
+			int base = first + s * slotWords;
+			long meta = table[base + words];
+			if (meta == 0) {
+				// Positions are never removed, so an empty slot ends the bucket's entries
+				misses += 1;
+				size += 1;
+				store(base, key, moves);
+				return true;
+			}
+			if (matches(key, base)) {
+				// An entry of an earlier search does not count as visited
+				if (meta >>> 32 != generation) {
+					misses += 1;
+					size += 1;
+					store(base, key, moves);
+					return true;
+				}
+				hits += 1;
+				if (moves + 1L < (meta & MOVES_MASK)) {
+					store(base, key, moves);
+					return true;
+				}
+				return false;
+			}
+
+			// Older generations go first, then the entry reached in the most moves
+			long score = (meta >>> 32 == generation ? 0 : 1L << 32) | (meta & MOVES_MASK);
+			if (score > victimScore) {
+				victim = base;
+				victimScore = score;
+			}
+		}
+		misses += 1;
+		if (victimScore >>> 32 == 0) {
+			evictions += 1;
+		}
+		else {
+			size += 1;
+		}
+		store(victim, key, moves);
+		return true;
+	}
+
+	/**
+	 * Returns the number of positions in the table since the last newSearch()
+	 * or clear().
+	 *
+	 * @return number of slots of the current generation
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of positions the table can hold.
+	 *
+	 * @return number of slots
+	 */
+	public int getCapacity() {
+		return buckets * BUCKET_SLOTS;
+	}
+
+	/**
+	 * Removes every entry. The hit, miss and eviction counts are kept.
+	 */
+	@Override
+	public void clear() {
+		if (size > 0) {
+			Arrays.fill(table, 0);
+			size = 0;
+		}
+	}
+
+	/**
+	 * Starts a new generation, emptying the table without erasing it: entries
+	 * written before now are no longer visited and are replaced before any
+	 * written after. The hit, miss and eviction counts are kept.
+	 */
+	public void newSearch() {
+		generation = (generation + 1) & 0x7FFFFFFF;
+		size = 0;
+	}
+
+	/**
+	 * Returns the number of visits that found their position in the table.
+	 *
+	 * @return number of hits
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Returns the number of visits that did not find their position in the
+	 * table.
+	 *
+	 * @return number of misses
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Returns the number of entries of the current generation overwritten by
+	 * other positions.
+	 *
+	 * @return number of evictions
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Writes the key, move count and current generation into the slot at base.
+	 */
+	private void store(int base, long[] key, int moves) {
+		System.arraycopy(key, 0, table, base, words);
+		table[base + words] = (moves + 1L) | ((long) generation << 32);
+	}
+
+	/**
+	 * Returns true if the slot at base holds the given key.
+	 */
+	private boolean matches(long[] key, int base) {
+		for (int i = 0; i < words; ++i) {
+			if (table[base + i] != key[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
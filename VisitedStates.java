@@ -0,0 +1,34 @@
+package hw3;
+
+/**
+ * A record of the positions reached during a search and the fewest moves
+ * needed to reach each of them. Positions are packed keys produced by a
+ * StateCodec.
+ * @Author Ethen Santana
+ */
+public interface VisitedStates {
+	/**
+	 * Records that the given position was reached in the given number of moves.
+	 * Returns true if the position had not been reached before or was only
+	 * reached in more moves, in which case it should be searched again. Returns
+	 * false if it was already reached in the same or fewer moves.
+	 * 
+	 * @param key   the packed position
+	 * @param moves number of moves made to reach the position
+	 * @return true if the position should be searched
+	 */
+	boolean visit(long[] key, int moves);
+
+	/**
+	 * Returns the number of distinct positions recorded.
+	 * 
+	 * @return number of positions
+	 */
+	int size();
+
+	/**
+	 * Removes every recorded position, so the table can be used for a new
+	 * search. Must not be called while a search is using the table.
+	 */
+	void clear();
+}
@@ -0,0 +1,165 @@
+package bench;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import api.BoardDescriptionReader;
+
+/**
+ * Fixed inputs for the benchmarks: the boards of games.txt, read from the
+ * copy shipped in BlockPuzzle.zip, large boards generated from a seed, and
+ * boards that cannot be solved, kept because a solver once failed to finish
+ * on them.
+ * <p>
+ * Boards are named by a parameter string: "games:i" is the i-th board of
+ * games.txt, "large:n:seed" is an n by n board generated from the given seed
+ * and "unsolvable:i" is the i-th board of UNSOLVABLE. The zip file is looked up at the path in the bench.zip system
+ * property, by default BlockPuzzle.zip in the working directory or, when the
+ * benchmarks are run from the bench directory, in its parent.
+ * @Author Ethen Santana
+ */
+public class BenchmarkCorpus {
+	/**
+	 * Entry of games.txt in the zip file.
+	 */
+	private static final String GAMES_ENTRY = "hw3/src/games.txt";
+
+	/**
+	 * Boards with no solution, one row per string, with cells separated by
+	 * spaces as in games.txt. IDA* with only a check against the current path
+	 * ran for minutes on the first one, which breadth first search shows to
+	 * have 64 positions.
+	 */
+	private static final String[][] UNSOLVABLE = {
+			{ "* * * * * * *",
+			  "e . ^ . ^ . e",
+			  "* ^ v . v ^ *",
+			  "* v . . . v *",
+			  "* [ ] . [ ] *",
+			  "* * e * e * *" } };
+
+	/**
+	 * Returns the description of the board with the given name.
+	 *
+	 * @param name "games:i", "large:n:seed" or "unsolvable:i"
+	 * @return the board description
+	 * @throws IOException if games.txt cannot be read
+	 */
+	public static String[][] describe(String name) throws IOException {
+		String[] parts = name.split(":");
+		if (parts[0].equals("games")) {
+			return games().get(Integer.parseInt(parts[1]));
+		}
+		else if (parts[0].equals("large")) {
+			return generate(Integer.parseInt(parts[1]), Long.parseLong(parts[2]));
+		}
+		else if (parts[0].equals("unsolvable")) {
+			String[] rows = UNSOLVABLE[Integer.parseInt(parts[1])];
+			String[][] desc = new String[rows.length][];
+			for (int row = 0; row < rows.length; ++row) {
+				desc[row] = rows[row].split(" ");
+			}
+			return desc;
+		}
+		throw new IllegalArgumentException("unknown board " + name);
+	}
+
+	/**
+	 * Returns the non-empty board descriptions of games.txt.
+	 *
+	 * @return the descriptions in file order
+	 * @throws IOException if the zip file or its games.txt cannot be read
+	 */
+	public static ArrayList<String[][]> games() throws IOException {
+		ArrayList<String[][]> games = new ArrayList<String[][]>();
+		try (ZipFile zip = new ZipFile(System.getProperty("bench.zip", defaultZip()))) {
+			ZipEntry entry = zip.getEntry(GAMES_ENTRY);
+			if (entry == null) {
+				throw new IOException("no " + GAMES_ENTRY + " in " + zip.getName());
+			}
+			try (BoardDescriptionReader reader = new BoardDescriptionReader(
+					new InputStreamReader(zip.getInputStream(entry), Charset.defaultCharset()))) {
+				String[][] desc = reader.nextDescription();
+				while (desc != null) {
+					if (desc.length > 0) {
+						games.add(desc);
+					}
+					desc = reader.nextDescription();
+				}
+			}
+		}
+		return games;
+	}
+
+	/**
+	 * Returns the path of BlockPuzzle.zip in the working directory, or in its
+	 * parent if there is none, as when running from the bench directory.
+	 */
+	private static String defaultZip() {
+		if (!Files.exists(Paths.get("BlockPuzzle.zip")) && Files.exists(Paths.get("..", "BlockPuzzle.zip"))) {
+			return Paths.get("..", "BlockPuzzle.zip").toString();
+		}
+		return "BlockPuzzle.zip";
+	}
+
+	/**
+	 * Generates an n by n board: a wall around the edge with one exit on the
+	 * right, and boulders of length two or three placed at random on about half
+	 * of the inner cells. The same size and seed always give the same board.
+	 *
+	 * @param n    number of rows and columns, at least 4
+	 * @param seed the random seed
+	 * @return the board description
+	 */
+	public static String[][] generate(int n, long seed) {
+		Random rand = new Random(seed);
+		String[][] desc = new String[n][n];
+		for (int row = 0; row < n; ++row) {
+			for (int col = 0; col < n; ++col) {
+				boolean edge = row == 0 || col == 0 || row == n - 1 || col == n - 1;
+				desc[row][col] = edge ? "*" : ".";
+			}
+		}
+		desc[1 + rand.nextInt(n - 2)][n - 1] = "e";
+
+		// Try random spots until about half of the inner cells are covered
+		int inner = (n - 2) * (n - 2);
+		int covered = 0;
+		for (int attempt = 0; attempt < inner * 4 && covered < inner / 2; ++attempt) {
+			int length = 2 + rand.nextInt(2);
+			boolean horizontal = rand.nextBoolean();
+			int row = 1 + rand.nextInt(n - 2);
+			int col = 1 + rand.nextInt(n - 2);
+			if (fits(desc, row, col, length, horizontal)) {
+				for (int k = 0; k < length; ++k) {
+					String part = k == 0 ? (horizontal ? "[" : "^") : k == length - 1 ? (horizontal ? "]" : "v") : "#";
+					desc[horizontal ? row : row + k][horizontal ? col + k : col] = part;
+				}
+				covered += length;
+			}
+		}
+		return desc;
+	}
+
+	/**
+	 * Returns true if a boulder of the given length and orientation with its
+	 * first cell at (row, col) would cover only empty inner cells.
+	 */
+	private static boolean fits(String[][] desc, int row, int col, int length, boolean horizontal) {
+		for (int k = 0; k < length; ++k) {
+			int r = horizontal ? row : row + k;
+			int c = horizontal ? col + k : col;
+			if (r >= desc.length - 1 || c >= desc[0].length - 1 || !desc[r][c].equals(".")) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
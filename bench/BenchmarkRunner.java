@@ -0,0 +1,36 @@
+package bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so every result is reported in
+ * operations per second together with the allocation rate and bytes
+ * allocated per operation. The benchmarks are a separate Maven module in the
+ * bench directory, which declares JMH and compiles the game sources with
+ * them; "mvn package" there builds target/benchmarks.jar, which runs this
+ * class.
+ * <p>
+ * An optional argument selects benchmarks by regular expression, for example
+ * "BoardBenchmark.isGameOver"; by default all of them run. The same results
+ * come from the JMH command line with "-prof gc".
+ * @Author Ethen Santana
+ */
+public class BenchmarkRunner {
+	/**
+	 * Runs the selected benchmarks.
+	 *
+	 * @param args optional regular expression selecting benchmarks
+	 * @throws RunnerException if a benchmark fails
+	 */
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(args.length > 0 ? args[0] : "bench\\..*Benchmark")
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,142 @@
+package bench;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import api.Move;
+import hw3.Board;
+
+/**
+ * Throughput of the Board operations used by the solvers and the user
+ * interface, on every board of the corpus (see BenchmarkCorpus).
+ * @Author Ethen Santana
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+	/**
+	 * Name of the board to run on.
+	 */
+	@Param({ "games:0", "games:1", "games:2", "games:3", "games:4", "games:5", "large:16:1", "large:32:2" })
+	public String board;
+
+	/**
+	 * The board, in its start position.
+	 */
+	private Board game;
+
+	/**
+	 * A legal move of the start position.
+	 */
+	private Move move;
+
+	/**
+	 * Buffer for encoded moves.
+	 */
+	private int[] buffer;
+
+	/**
+	 * Builds the board and picks a legal move.
+	 *
+	 * @throws IOException if the corpus cannot be read
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		game = new Board(BenchmarkCorpus.describe(board));
+		ArrayList<Move> moves = game.getAllPossibleMoves();
+		if (moves.isEmpty()) {
+			throw new IllegalStateException(board + " has no legal moves");
+		}
+		move = moves.get(0);
+		buffer = new int[2 * game.getBoulders().size()];
+		game.getAllPossibleMoves(buffer);
+	}
+
+	/**
+	 * Lists the legal moves of the start position.
+	 *
+	 * @return the moves
+	 */
+	@Benchmark
+	public ArrayList<Move> getAllPossibleMoves() {
+		return game.getAllPossibleMoves();
+	}
+
+	/**
+	 * Lists the legal moves of the start position, encoded into a reused
+	 * buffer.
+	 *
+	 * @return the number of moves
+	 */
+	@Benchmark
+	public int getAllPossibleMovesEncoded() {
+		return game.getAllPossibleMoves(buffer);
+	}
+
+	/**
+	 * Makes the first legal move in encoded form, then undoes it.
+	 *
+	 * @return the move count after the move, which is 1
+	 */
+	@Benchmark
+	public int applyMove() {
+		game.applyMove(buffer[0]);
+		int count = game.getMoveCount();
+		game.undoMove();
+		return count;
+	}
+
+	/**
+	 * Makes one move with grab, move and release, then undoes it.
+	 *
+	 * @return the move count after the move, which is 1
+	 */
+	@Benchmark
+	public int moveGrabbedBoulder() {
+		game.grabBoulderAt(move.getRow(), move.getCol());
+		game.moveGrabbedBoulder(move.getDirection());
+		game.releaseBoulder();
+		int count = game.getMoveCount();
+		game.undoMove();
+		return count;
+	}
+
+	/**
+	 * Checks whether the start position is solved.
+	 *
+	 * @return false
+	 */
+	@Benchmark
+	public boolean isGameOver() {
+		return game.isGameOver();
+	}
+
+	/**
+	 * Puts the board back in its start position.
+	 *
+	 * @return the board
+	 */
+	@Benchmark
+	public Board reset() {
+		game.reset();
+		return game;
+	}
+}
@@ -0,0 +1,87 @@
+package bench;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import api.Cell;
+import hw3.Board;
+import hw3.Boulder;
+import hw3.GridUtil;
+
+/**
+ * Throughput of parsing board descriptions into cells and boulders, and of
+ * building a whole Board, on every board of the corpus (see BenchmarkCorpus).
+ * @Author Ethen Santana
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridUtilBenchmark {
+	/**
+	 * Name of the board to parse.
+	 */
+	@Param({ "games:0", "games:3", "games:5", "large:16:1", "large:32:2" })
+	public String board;
+
+	/**
+	 * The board description.
+	 */
+	private String[][] desc;
+
+	/**
+	 * Reads the board description.
+	 *
+	 * @throws IOException if the corpus cannot be read
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		desc = BenchmarkCorpus.describe(board);
+	}
+
+	/**
+	 * Creates the cells of the description.
+	 *
+	 * @return the grid
+	 */
+	@Benchmark
+	public Cell[][] createGrid() {
+		return GridUtil.createGrid(desc);
+	}
+
+	/**
+	 * Finds the boulders of the description.
+	 *
+	 * @return the boulders
+	 */
+	@Benchmark
+	public ArrayList<Boulder> findBoulders() {
+		return GridUtil.findBoulders(desc);
+	}
+
+	/**
+	 * Builds a board from the description.
+	 *
+	 * @return the board
+	 */
+	@Benchmark
+	public Board newBoard() {
+		return new Board(desc);
+	}
+}
@@ -0,0 +1,83 @@
+package bench;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import api.Move;
+import hw3.Board;
+import hw3.InformedSolver;
+
+/**
+ * Throughput of InformedSolver's A* and IDA* searches on the games boards and
+ * on the unsolvable boards of the corpus (see BenchmarkCorpus), each of which
+ * both searches must report as having no solution.
+ * @Author Ethen Santana
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InformedSolverBenchmark {
+	/**
+	 * Name of the board to solve.
+	 */
+	@Param({ "games:0", "games:1", "games:2", "games:3", "games:4", "games:5", "unsolvable:0" })
+	public String board;
+
+	/**
+	 * The board, in its start position.
+	 */
+	private Board game;
+
+	/**
+	 * The solver, reused by every search.
+	 */
+	private InformedSolver solver;
+
+	/**
+	 * Builds the board and the solver.
+	 *
+	 * @throws IOException if the corpus cannot be read
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		game = new Board(BenchmarkCorpus.describe(board));
+		solver = new InformedSolver();
+	}
+
+	/**
+	 * Runs one A* search. The board is back in its start position afterwards.
+	 *
+	 * @return the solution, or null if there is none
+	 */
+	@Benchmark
+	public ArrayList<Move> aStar() {
+		return solver.solveAStar(game);
+	}
+
+	/**
+	 * Runs one IDA* search. The board is back in its start position afterwards.
+	 *
+	 * @return the solution, or null if there is none
+	 */
+	@Benchmark
+	public ArrayList<Move> idaStar() {
+		return solver.solveIdaStar(game);
+	}
+}
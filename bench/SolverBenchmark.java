@@ -0,0 +1,87 @@
+package bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hw3.Board;
+import hw3.SearchLimits;
+import hw3.SolveResult;
+import hw3.Solver;
+
+/**
+ * Throughput of a whole Solver.solve() on the corpus (see BenchmarkCorpus).
+ * The games boards are searched completely up to maxMoves. The generated
+ * boards have far larger state spaces, so their searches stop after a fixed
+ * number of expanded positions, which keeps the work per operation the same
+ * from run to run.
+ * @Author Ethen Santana
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverBenchmark {
+	/**
+	 * Number of positions a search of a generated board expands.
+	 */
+	private static final long LARGE_NODES = 20000;
+
+	/**
+	 * Name of the board to solve.
+	 */
+	@Param({ "games:0", "games:1", "games:2", "games:3", "games:4", "games:5", "large:16:1", "large:32:2" })
+	public String board;
+
+	/**
+	 * Maximum number of moves of each search.
+	 */
+	@Param({ "14" })
+	public int maxMoves;
+
+	/**
+	 * The board, in its start position.
+	 */
+	private Board game;
+
+	/**
+	 * Limits of each search.
+	 */
+	private SearchLimits limits;
+
+	/**
+	 * Builds the board.
+	 *
+	 * @throws IOException if the corpus cannot be read
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		game = new Board(BenchmarkCorpus.describe(board));
+		limits = board.startsWith("large") ? new SearchLimits(0, LARGE_NODES, 0) : new SearchLimits();
+	}
+
+	/**
+	 * Runs one search with a new solver. The board is back in its start
+	 * position afterwards.
+	 *
+	 * @return the result of the search
+	 */
+	@Benchmark
+	public SolveResult solve() {
+		return new Solver(maxMoves).solve(game, limits, null);
+	}
+}